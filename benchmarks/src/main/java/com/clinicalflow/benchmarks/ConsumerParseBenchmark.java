@@ -0,0 +1,97 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.notify.event.LabResultEvent;
+import com.clinicalflow.notify.event.LabResultEventDeserializer;
+import com.clinicalflow.notify.event.WireFormat;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a lab.results record into fields the notification service can act
+ * on. {@code mapJson} is the original consumer: JSON into a
+ * {@code LinkedHashMap} followed by casts. The other two are the typed JSON
+ * and binary paths of {@link LabResultEventDeserializer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsumerParseBenchmark {
+
+    private byte[] json;
+    private byte[] binary;
+    private RecordHeaders jsonHeaders;
+    private RecordHeaders binaryHeaders;
+
+    private JsonDeserializer<LinkedHashMap<String, Object>> mapDeserializer;
+    private LabResultEventDeserializer typedDeserializer;
+
+    @Setup
+    public void setUp() {
+        Instant reportedAt = Instant.now();
+        Instant collectedAt = reportedAt.minusSeconds(2700);
+        com.clinicalflow.lab.event.LabResultEvent event = com.clinicalflow.lab.event.LabResultEvent.of(
+                "CRITICAL_RESULT", UUID.randomUUID(), UUID.randomUUID(),
+                "Potassium", 6.2, "mEq/L", "CRITICAL", true, collectedAt, reportedAt);
+        try (JsonSerializer<com.clinicalflow.lab.event.LabResultEvent> serializer = new JsonSerializer<>()) {
+            serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            json = serializer.serialize("lab.results", event);
+        }
+        binary = com.clinicalflow.lab.event.LabResultEventCodec.encode(event);
+
+        jsonHeaders = new RecordHeaders();
+        jsonHeaders.add(WireFormat.HEADER, WireFormat.JSON.getBytes(StandardCharsets.UTF_8));
+        binaryHeaders = new RecordHeaders();
+        binaryHeaders.add(WireFormat.HEADER, WireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8));
+
+        mapDeserializer = new JsonDeserializer<>();
+        mapDeserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                JsonDeserializer.VALUE_DEFAULT_TYPE, LinkedHashMap.class.getName()), false);
+        typedDeserializer = new LabResultEventDeserializer();
+    }
+
+    @Benchmark
+    public void mapJson(Blackhole bh) {
+        Map<String, Object> event = mapDeserializer.deserialize("lab.results", json);
+        bh.consume((String) event.get("eventType"));
+        bh.consume((String) event.get("testName"));
+        bh.consume(event.get("value"));
+        bh.consume((String) event.get("unit"));
+        bh.consume((String) event.get("flag"));
+        bh.consume(event.get("critical") instanceof Boolean b && b);
+        bh.consume(String.valueOf(event.get("patientId")));
+    }
+
+    @Benchmark
+    public LabResultEvent typedJson() {
+        return typedDeserializer.deserialize("lab.results", jsonHeaders, json);
+    }
+
+    @Benchmark
+    public LabResultEvent typedBinary() {
+        return typedDeserializer.deserialize("lab.results", binaryHeaders, binary);
+    }
+}
@@ -0,0 +1,212 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.lab.event.LabResultEventSerializer;
+import com.clinicalflow.lab.event.WireFormat;
+import com.clinicalflow.notify.event.LabResultEvent;
+import com.clinicalflow.notify.event.LabResultEventDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Draining lab.results from a real broker with the notification service's
+ * listener container setups. An embedded single-node KRaft broker is started
+ * once and loaded with {@value #EVENTS} events over three partitions, in JSON
+ * and in binary. Each invocation then reads every event from offset 0 with a
+ * fresh container, so the score is the time per event, broker fetches
+ * included.
+ * <ul>
+ *   <li>{@code recordListener} is the original consumer: one thread, a record
+ *       listener, JSON into a {@code LinkedHashMap} and casts.</li>
+ *   <li>{@code batchListener} is the current one: a batch listener with one
+ *       thread per partition, {@code max.poll.records} 500 and typed events
+ *       from {@link LabResultEventDeserializer}, critical events handled first.</li>
+ * </ul>
+ * Only the consumption model differs; the per-event work is the same field
+ * reads in both, so deduplication, enrichment and logging are left out.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsumerThroughputBenchmark {
+
+    private static final int EVENTS = 200_000;
+    private static final int PARTITIONS = 3;
+    private static final String JSON_TOPIC = "lab.results.json";
+    private static final String BINARY_TOPIC = "lab.results.binary";
+
+    private EmbeddedKafkaBroker broker;
+    private final LongAdder sink = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, JSON_TOPIC, BINARY_TOPIC)
+                .brokerProperty("group.initial.rebalance.delay.ms", "0");
+        broker.afterPropertiesSet();
+        produce(JSON_TOPIC, WireFormat.JSON);
+        produce(BINARY_TOPIC, "binary");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopBroker() {
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long recordListener() throws InterruptedException {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, LinkedHashMap.class.getName());
+
+        CountDownLatch done = new CountDownLatch(EVENTS);
+        MessageListener<String, Map<String, Object>> listener = record -> {
+            Map<String, Object> event = record.value();
+            String testName = (String) event.get("testName");
+            Object value = event.get("value");
+            String unit = (String) event.get("unit");
+            String flag = (String) event.get("flag");
+            boolean critical = event.get("critical") instanceof Boolean b && b;
+            String patientId = String.valueOf(event.get("patientId"));
+            sink.add(testName.length() + unit.length() + flag.length() + patientId.length()
+                    + value.hashCode() + (critical ? 1 : 0));
+            done.countDown();
+        };
+        return drain(JSON_TOPIC, props, 1, listener, done);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long batchListenerJson() throws InterruptedException {
+        return batchListener(JSON_TOPIC);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long batchListenerBinary() throws InterruptedException {
+        return batchListener(BINARY_TOPIC);
+    }
+
+    private long batchListener(String topic) throws InterruptedException {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, LabResultEventDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+
+        CountDownLatch done = new CountDownLatch(EVENTS);
+        BatchMessageListener<String, LabResultEvent> listener = records -> {
+            for (ConsumerRecord<String, LabResultEvent> record : records) {
+                if (record.value().critical()) consume(record.value());
+            }
+            for (ConsumerRecord<String, LabResultEvent> record : records) {
+                if (!record.value().critical()) consume(record.value());
+                done.countDown();
+            }
+        };
+        return drain(topic, props, PARTITIONS, listener, done);
+    }
+
+    private void consume(LabResultEvent event) {
+        sink.add(event.testName().length() + event.unit().length() + event.flag().length()
+                + event.patientId().toString().length() + event.value().hashCode() + (event.critical() ? 1 : 0));
+    }
+
+    /** Reads the topic from offset 0 until every event has been handled. */
+    private long drain(String topic, Map<String, Object> props, int concurrency,
+                       Object listener, CountDownLatch done) throws InterruptedException {
+        TopicPartitionOffset[] partitions = IntStream.range(0, PARTITIONS)
+                .mapToObj(p -> new TopicPartitionOffset(topic, p, 0L))
+                .toArray(TopicPartitionOffset[]::new);
+        ContainerProperties containerProps = new ContainerProperties(partitions);
+        containerProps.setGroupId("bench-" + UUID.randomUUID());
+        containerProps.setMessageListener(listener);
+        ConcurrentMessageListenerContainer<String, Object> container =
+                new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProps);
+        container.setConcurrency(concurrency);
+        container.start();
+        try {
+            if (!done.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException(done.getCount() + " events were not consumed");
+            }
+        } finally {
+            container.stop();
+        }
+        return sink.sum();
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return props;
+    }
+
+    /** Loads the topic the way lab-service publishes: keyed by patient, about 5% critical. */
+    private void produce(String topic, String format) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, LabResultEventSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        props.put(WireFormat.CONFIG, format);
+        Instant reportedAt = Instant.now();
+        UUID[] patients = IntStream.range(0, 5000).mapToObj(i -> UUID.randomUUID()).toArray(UUID[]::new);
+        try (KafkaProducer<String, com.clinicalflow.lab.event.LabResultEvent> producer = new KafkaProducer<>(props)) {
+            for (int i = 0; i < EVENTS; i++) {
+                UUID patientId = patients[i % patients.length];
+                boolean critical = i % 20 == 0;
+                com.clinicalflow.lab.event.LabResultEvent event = com.clinicalflow.lab.event.LabResultEvent.of(
+                        critical ? "CRITICAL_RESULT" : "RESULT_REPORTED", UUID.randomUUID(), patientId,
+                        "Potassium", critical ? 6.8 : 4.2, "mEq/L", critical ? "CRITICAL" : "NORMAL",
+                        critical, reportedAt.minusSeconds(2700), reportedAt);
+                producer.send(new ProducerRecord<>(topic, patientId.toString(), event));
+            }
+            producer.flush();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.ResultStatus;
+import com.clinicalflow.patient.model.Patient;
+import com.clinicalflow.patient.model.PatientStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the list endpoints' response bodies with an ObjectMapper set up
+ * like the services' (ISO-8601 dates, Java time module).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityJsonBenchmark {
+
+    @Param({"50", "500"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Patient> patients;
+    private List<LabResult> labResults;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        SplittableRandom random = new SplittableRandom(7);
+        Instant now = Instant.now();
+
+        Field createdAt = Patient.class.getDeclaredField("createdAt");
+        Field updatedAt = Patient.class.getDeclaredField("updatedAt");
+        createdAt.setAccessible(true);
+        updatedAt.setAccessible(true);
+
+        patients = new ArrayList<>(size);
+        labResults = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Patient patient = new Patient();
+            patient.setId(UUID.randomUUID());
+            patient.setFirstName("First" + i);
+            patient.setLastName("Last" + random.nextInt(10_000));
+            patient.setDateOfBirth(LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            patient.setMrn("MRN-" + (100_000 + i));
+            patient.setStatus(PatientStatus.values()[random.nextInt(PatientStatus.values().length)]);
+            createdAt.set(patient, now.minusSeconds(random.nextInt(1_000_000)));
+            updatedAt.set(patient, now);
+            patients.add(patient);
+
+            LabResult result = new LabResult();
+            result.setId(UUID.randomUUID());
+            result.setPatientId(patient.getId());
+            result.setTestName("Potassium");
+            result.setValue(random.nextDouble(2.0, 7.0));
+            result.setUnit("mEq/L");
+            result.setReferenceMin(3.5);
+            result.setReferenceMax(5.0);
+            result.setFlag(ResultFlag.values()[random.nextInt(ResultFlag.values().length)]);
+            result.setStatus(ResultStatus.REPORTED);
+            result.setCollectedAt(now.minusSeconds(random.nextInt(86_400)));
+            result.setReportedAt(now);
+            labResults.add(result);
+        }
+    }
+
+    @Benchmark
+    public byte[] patients() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(patients);
+    }
+
+    @Benchmark
+    public byte[] labResults() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(labResults);
+    }
+}
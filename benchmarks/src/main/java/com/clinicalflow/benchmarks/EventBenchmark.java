@@ -0,0 +1,103 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.lab.event.LabResultEvent;
+import com.clinicalflow.lab.event.LabResultEventCodec;
+import com.clinicalflow.patient.event.PatientEvent;
+import com.clinicalflow.patient.event.PatientEventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a domain event and encoding it the way the producers do: with
+ * Spring Kafka's {@link JsonSerializer} and with the binary codec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBenchmark {
+
+    private final UUID labResultId = UUID.randomUUID();
+    private final UUID patientId = UUID.randomUUID();
+    private final Instant reportedAt = Instant.now();
+    private final Instant collectedAt = reportedAt.minusSeconds(2700);
+
+    private JsonSerializer<LabResultEvent> labJson;
+    private JsonSerializer<PatientEvent> patientJson;
+
+    @Setup
+    public void setUp() {
+        labJson = new JsonSerializer<>();
+        labJson.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        patientJson = new JsonSerializer<>();
+        patientJson.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        System.out.printf("%nEncoded sizes: lab event json=%d binary=%d, patient event json=%d binary=%d bytes%n",
+                labJson.serialize("lab.results", labEvent()).length,
+                LabResultEventCodec.encode(labEvent()).length,
+                patientJson.serialize("patient.events", patientEvent()).length,
+                PatientEventCodec.encode(patientEvent()).length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        labJson.close();
+        patientJson.close();
+    }
+
+    @Benchmark
+    public LabResultEvent labEventOf() {
+        return labEvent();
+    }
+
+    @Benchmark
+    public byte[] labEventJson() {
+        return labJson.serialize("lab.results", labEvent());
+    }
+
+    @Benchmark
+    public byte[] labEventBinary() {
+        return LabResultEventCodec.encode(labEvent());
+    }
+
+    @Benchmark
+    public PatientEvent patientEventOf() {
+        return patientEvent();
+    }
+
+    @Benchmark
+    public byte[] patientEventJson() {
+        return patientJson.serialize("patient.events", patientEvent());
+    }
+
+    @Benchmark
+    public byte[] patientEventBinary() {
+        return PatientEventCodec.encode(patientEvent());
+    }
+
+    private LabResultEvent labEvent() {
+        return LabResultEvent.of("CRITICAL_RESULT", labResultId, patientId,
+                "Potassium", 6.2, "mEq/L", "CRITICAL", true, collectedAt, reportedAt);
+    }
+
+    private PatientEvent patientEvent() {
+        return PatientEvent.of("PATIENT_ADMITTED", patientId, "MRN-004211",
+                "Sarah Johnson", "REGISTERED", "ADMITTED");
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.patient.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cache-miss patient lookups under contention: 64 request threads look up a
+ * small set of hot patients against a pool of 10 connections, each query
+ * holding its connection for {@code queryMicros}. Compares every request
+ * querying on its own with requests coalesced through {@link SingleFlight}.
+ *
+ * Besides throughput, the aux counters report how many queries reached the
+ * pool and the total time spent waiting for a connection; with coalescing,
+ * at most one query per hot patient holds a connection at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class LookupCoalescingBenchmark {
+
+    private static final int POOL_SIZE = 10;
+
+    @Param({"1", "4", "32"})
+    private int hotPatients;
+
+    @Param({"false", "true"})
+    private boolean coalesce;
+
+    @Param({"1000"})
+    private long queryMicros;
+
+    private Semaphore pool;
+    private SingleFlight<Integer, Integer> flights;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PoolStats {
+        public long queries;
+        public long poolWaitMillis;
+
+        private long poolWaitNanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            queries = 0;
+            poolWaitMillis = 0;
+            poolWaitNanos = 0;
+        }
+
+        void waited(long nanos) {
+            queries++;
+            poolWaitNanos += nanos;
+            poolWaitMillis = TimeUnit.NANOSECONDS.toMillis(poolWaitNanos);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        pool = new Semaphore(POOL_SIZE, true);
+        flights = new SingleFlight<>(new SimpleMeterRegistry(), "benchmark");
+    }
+
+    @Benchmark
+    public Integer lookup(PoolStats stats) {
+        int patient = ThreadLocalRandom.current().nextInt(hotPatients);
+        return coalesce
+                ? flights.execute(patient, () -> query(patient, stats))
+                : query(patient, stats);
+    }
+
+    private Integer query(int patient, PoolStats stats) {
+        long start = System.nanoTime();
+        pool.acquireUninterruptibly();
+        stats.waited(System.nanoTime() - start);
+        try {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryMicros));
+            return patient;
+        } finally {
+            pool.release();
+        }
+    }
+}
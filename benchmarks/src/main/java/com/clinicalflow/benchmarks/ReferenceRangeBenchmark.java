@@ -0,0 +1,109 @@
+package com.clinicalflow.benchmarks;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.Sex;
+import com.clinicalflow.lab.service.ReferenceRanges;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of flagging one result on the ingest path. Run with {@code -prof gc}
+ * to confirm that {@code gc.alloc.rate.norm} stays at zero.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReferenceRangeBenchmark {
+
+    private static final int RESULTS = 1024;
+    private static final String[] CATALOG_TESTS = {
+            "Potassium", "sodium", "Glucose", "Creatinine", "Hemoglobin", "WBC", "Platelets", "Lactate"};
+    private static final String[] CATALOG_UNITS = {
+            "mEq/L", "mEq/L", "mg/dL", "mg/dL", "g/dL", "10^3/uL", "10^3/uL", "mmol/L"};
+
+    private ReferenceRanges ranges;
+    private LabResult[] catalogResults;
+    private LabResult[] fallbackResults;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/reference-ranges.json")) {
+            List<ReferenceRanges.TestDefinition> tests =
+                    new ObjectMapper().readValue(in, new TypeReference<>() {});
+            ranges = ReferenceRanges.of(tests);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        catalogResults = new LabResult[RESULTS];
+        fallbackResults = new LabResult[RESULTS];
+        for (int i = 0; i < RESULTS; i++) {
+            int test = random.nextInt(CATALOG_TESTS.length);
+            LabResult result = result(CATALOG_TESTS[test], CATALOG_UNITS[test], random.nextDouble(0, 200));
+            result.setPatientSex(random.nextBoolean() ? Sex.MALE : Sex.FEMALE);
+            result.setPatientAgeYears(random.nextInt(0, 95));
+            catalogResults[i] = result;
+
+            LabResult fallback = result("TEST-" + random.nextInt(40), "U/L", random.nextDouble(0, 200));
+            fallback.setReferenceMin(20.0);
+            fallback.setReferenceMax(120.0);
+            fallbackResults[i] = fallback;
+        }
+    }
+
+    /** Catalog hit with demographic band selection. */
+    @Benchmark
+    public LabResult catalogBand() {
+        LabResult result = catalogResults[next++ & (RESULTS - 1)];
+        ranges.apply(result);
+        return result;
+    }
+
+    /** Test absent from the catalog; uses the range sent with the result. */
+    @Benchmark
+    public LabResult suppliedRange() {
+        LabResult result = fallbackResults[next++ & (RESULTS - 1)];
+        ranges.apply(result);
+        return result;
+    }
+
+    /** One bulk submission's worth of flags against a single snapshot. */
+    @Benchmark
+    @OperationsPerInvocation(RESULTS)
+    public LabResult[] batch() {
+        ReferenceRanges snapshot = ranges;
+        for (LabResult result : catalogResults) {
+            snapshot.apply(result);
+        }
+        return catalogResults;
+    }
+
+    private static LabResult result(String testName, String unit, double value) {
+        LabResult result = new LabResult();
+        result.setPatientId(UUID.randomUUID());
+        result.setTestName(testName);
+        result.setUnit(unit);
+        result.setValue(value);
+        return result;
+    }
+}
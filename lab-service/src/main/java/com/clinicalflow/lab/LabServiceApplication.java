@@ -2,8 +2,10 @@ package com.clinicalflow.lab;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LabServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(LabServiceApplication.class, args);
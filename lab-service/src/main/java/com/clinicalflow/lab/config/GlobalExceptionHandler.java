@@ -0,0 +1,75 @@
+package com.clinicalflow.lab.config;
+
+import com.clinicalflow.lab.export.LabResultExportService;
+import com.clinicalflow.lab.service.LabResultService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.net.URI;
+import java.util.stream.Collectors;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(LabResultService.LabResultNotFoundException.class)
+    public ProblemDetail handleNotFound(LabResultService.LabResultNotFoundException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/lab-result-not-found"));
+        problem.setTitle("Lab Result Not Found");
+        return problem;
+    }
+
+    @ExceptionHandler(LabResultService.BatchTooLargeException.class)
+    public ProblemDetail handleBatchTooLarge(LabResultService.BatchTooLargeException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/batch-too-large"));
+        problem.setTitle("Batch Too Large");
+        return problem;
+    }
+
+    @ExceptionHandler(LabResultService.InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursor(LabResultService.InvalidCursorException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/invalid-cursor"));
+        problem.setTitle("Invalid Cursor");
+        return problem;
+    }
+
+    @ExceptionHandler(LabResultExportService.ExportJobNotFoundException.class)
+    public ProblemDetail handleExportNotFound(LabResultExportService.ExportJobNotFoundException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/export-job-not-found"));
+        problem.setTitle("Export Job Not Found");
+        return problem;
+    }
+
+    @ExceptionHandler(LabResultExportService.InvalidExportRequestException.class)
+    public ProblemDetail handleInvalidExport(LabResultExportService.InvalidExportRequestException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/invalid-export-request"));
+        problem.setTitle("Invalid Export Request");
+        return problem;
+    }
+
+    @ExceptionHandler(LabResultExportService.ExportJobStateException.class)
+    public ProblemDetail handleExportState(LabResultExportService.ExportJobStateException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/export-job-state"));
+        problem.setTitle("Export Job State Conflict");
+        return problem;
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ProblemDetail handleValidation(MethodArgumentNotValidException ex) {
+        String errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(e -> e.getField() + ": " + e.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, errors);
+        problem.setType(URI.create("https://clinicalflow.com/errors/validation-failed"));
+        problem.setTitle("Validation Failed");
+        return problem;
+    }
+}
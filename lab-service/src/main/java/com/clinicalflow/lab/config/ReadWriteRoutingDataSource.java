@@ -0,0 +1,65 @@
+package com.clinicalflow.lab.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections taken inside read-only transactions to the replica pool
+ * and everything else to the primary. Reads are kept on the primary while the
+ * current request is pinned by {@link ReadYourWritesFilter}.
+ *
+ * The decision uses the transaction's read-only flag, so this must sit behind
+ * a {@code LazyConnectionDataSourceProxy}: the proxy only asks for a real
+ * connection at the first statement, after the transaction has started.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReadYourWritesFilter readYourWrites;
+    private final Counter writes;
+    private final Counter pinnedReads;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      DataSource replica,
+                                      ReadYourWritesFilter readYourWrites,
+                                      MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.writes = routed(meterRegistry, "primary", "read-write");
+        this.pinnedReads = routed(meterRegistry, "primary", "read-your-writes");
+        this.replicaReads = routed(meterRegistry, "replica", "read-only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) readYourWrites.pinAfterCommit();
+            writes.increment();
+            return Target.PRIMARY;
+        }
+        if (readYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write routing data source")
+                .tags("target", target, "reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package com.clinicalflow.lab.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for clients behind the replica router. When a POST, PUT,
+ * PATCH or DELETE request commits a read-write transaction, the response
+ * carries a short-lived cookie, and requests that present it read from the
+ * primary until it expires. Safe methods never set the cookie, even when a
+ * cache miss reads the primary in a read-write transaction. A client therefore
+ * sees its own change even while the replica is still catching up. Clients
+ * that drop cookies only get the replica's lag. A zero window turns this off.
+ *
+ * <p>The cookie holds an expiry time in plain text, so a client could send
+ * any value. The filter never issues one further ahead than the window, so a
+ * value beyond now plus the window is ignored rather than trusted. Otherwise
+ * a client could pin itself to the primary indefinitely.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "cf-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private static final ThreadLocal<RequestState> CURRENT = new ThreadLocal<>();
+
+    private static final class RequestState {
+        final HttpServletResponse response;
+        final boolean writeRequest;
+        boolean pinned;
+        boolean cookieSet;
+
+        RequestState(HttpServletResponse response, boolean writeRequest, boolean pinned) {
+            this.response = response;
+            this.writeRequest = writeRequest;
+            this.pinned = pinned;
+        }
+    }
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CURRENT.set(new RequestState(response, !SAFE_METHODS.contains(request.getMethod()), pinnedByCookie(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    boolean isPinned() {
+        RequestState state = CURRENT.get();
+        return state != null && state.pinned;
+    }
+
+    /**
+     * Called when the current transaction takes a primary connection for
+     * writing. If this is a write request, then once the transaction commits
+     * the rest of the request reads from the primary and the response sets
+     * the cookie.
+     */
+    void pinAfterCommit() {
+        RequestState state = CURRENT.get();
+        if (state == null || !state.writeRequest || window.isZero() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                state.pinned = true;
+                if (state.cookieSet || state.response.isCommitted()) return;
+                Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+                state.response.addCookie(cookie);
+                state.cookieSet = true;
+            }
+        });
+    }
+
+    private boolean pinnedByCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null || window.isZero()) return false;
+        for (Cookie cookie : cookies) {
+            if (!COOKIE.equals(cookie.getName())) continue;
+            try {
+                long until = Long.parseLong(cookie.getValue());
+                long now = System.currentTimeMillis();
+                return until > now && until <= now + window.toMillis();
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
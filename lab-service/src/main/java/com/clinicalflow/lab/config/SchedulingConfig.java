@@ -0,0 +1,46 @@
+package com.clinicalflow.lab.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Runs scheduled jobs on a small pool so that one blocked job cannot starve the
+ * others. When Kafka is unreachable, the outbox relay can block for the
+ * producer's full send timeout. On Boot's default single-thread scheduler
+ * (and on its virtual-thread scheduler, which runs fixed-delay jobs on one
+ * thread) that would also stall the critical worklist push.
+ *
+ * The scheduler is deliberately not a bean. An {@code Executor} bean would
+ * replace Boot's {@code applicationTaskExecutor}, which the publishers use for
+ * send callbacks.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public SchedulingConfig(@Value("${app.scheduling.pool-size:4}") int poolSize,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        scheduler.setPoolSize(poolSize);
+        if (virtualThreads) {
+            scheduler.setThreadFactory(Thread.ofVirtual().name("scheduling-", 1).factory());
+        } else {
+            scheduler.setThreadNamePrefix("scheduling-");
+        }
+        scheduler.initialize();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(scheduler);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+    }
+}
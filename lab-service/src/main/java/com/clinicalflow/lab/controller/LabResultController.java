@@ -1,12 +1,23 @@
 package com.clinicalflow.lab.controller;
 
 import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.PatientLabSummary;
+import com.clinicalflow.lab.model.ResultStatus;
+import com.clinicalflow.lab.service.BatchSubmissionResult;
+import com.clinicalflow.lab.service.CriticalResultBroadcaster;
+import com.clinicalflow.lab.service.CriticalWorklistPage;
 import com.clinicalflow.lab.service.LabResultService;
+import com.clinicalflow.lab.service.LabTrend;
+import com.clinicalflow.lab.service.LabTrendService;
+import com.clinicalflow.lab.service.PatientLabSummaryService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -14,22 +25,66 @@ import java.util.UUID;
 public class LabResultController {
 
     private final LabResultService service;
+    private final LabTrendService trendService;
+    private final PatientLabSummaryService summaryService;
+    private final CriticalResultBroadcaster broadcaster;
 
-    public LabResultController(LabResultService service) {
+    public LabResultController(LabResultService service,
+                               LabTrendService trendService,
+                               PatientLabSummaryService summaryService,
+                               CriticalResultBroadcaster broadcaster) {
         this.service = service;
+        this.trendService = trendService;
+        this.summaryService = summaryService;
+        this.broadcaster = broadcaster;
     }
 
     @GetMapping("/patient/{patientId}")
     public List<LabResult> findByPatient(
             @PathVariable UUID patientId,
-            @RequestParam(required = false) String testName) {
-        if (testName != null) return service.findByPatientAndTest(patientId, testName);
-        return service.findByPatient(patientId);
+            @RequestParam(required = false) String testName,
+            @RequestParam(required = false) Instant since) {
+        if (testName != null) return service.findByPatientAndTest(patientId, testName, since);
+        return service.findByPatient(patientId, since);
+    }
+
+    @GetMapping("/patient/{patientId}/trend")
+    public LabTrend trend(
+            @PathVariable UUID patientId,
+            @RequestParam String testName,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Integer maxPoints) {
+        return trendService.trend(patientId, testName, from, to, maxPoints);
+    }
+
+    @GetMapping("/patient/{patientId}/summary")
+    public PatientLabSummary summary(@PathVariable UUID patientId) {
+        return summaryService.summary(patientId);
+    }
+
+    @PostMapping("/patient/{patientId}/summary/rebuild")
+    public PatientLabSummary rebuildSummary(@PathVariable UUID patientId) {
+        return summaryService.rebuild(patientId);
+    }
+
+    @PostMapping("/summaries/rebuild")
+    public Map<String, Integer> rebuildSummaries() {
+        return Map.of("patients", summaryService.rebuildAll());
     }
 
     @GetMapping("/critical")
-    public List<LabResult> findCritical() {
-        return service.findCriticalResults();
+    public CriticalWorklistPage findCritical(
+            @RequestParam(required = false) ResultStatus status,
+            @RequestParam(required = false) Instant since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return service.findCriticalResults(status, since, cursor, limit);
+    }
+
+    @GetMapping(value = "/critical/stream", produces = "text/event-stream")
+    public SseEmitter streamCritical() {
+        return broadcaster.subscribe();
     }
 
     @GetMapping("/{id}")
@@ -43,6 +98,11 @@ public class LabResultController {
         return service.submitResult(result);
     }
 
+    @PostMapping("/batch")
+    public BatchSubmissionResult submitBatch(@RequestBody List<LabResult> results) {
+        return service.submitBatch(results);
+    }
+
     @PostMapping("/{id}/verify")
     public LabResult verify(@PathVariable UUID id) {
         return service.verifyResult(id);
@@ -0,0 +1,48 @@
+package com.clinicalflow.lab.controller;
+
+import com.clinicalflow.lab.export.ExportJob;
+import com.clinicalflow.lab.export.ExportRequest;
+import com.clinicalflow.lab.export.LabResultExportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/lab-results/exports")
+public class LabResultExportController {
+
+    private final LabResultExportService exportService;
+
+    public LabResultExportController(LabResultExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJob submit(@RequestBody ExportRequest request) {
+        return exportService.submit(request);
+    }
+
+    @GetMapping
+    public List<ExportJob> findAll() {
+        return exportService.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public ExportJob find(@PathVariable UUID id) {
+        return exportService.find(id);
+    }
+
+    @PostMapping("/{id}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJob resume(@PathVariable UUID id) {
+        return exportService.resume(id);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ExportJob cancel(@PathVariable UUID id) {
+        return exportService.cancel(id);
+    }
+}
@@ -14,13 +14,16 @@ public class LabResultEvent {
     private String unit;
     private String flag;
     private boolean critical;
+    private Instant collectedAt;
+    private Instant reportedAt;
     private Instant timestamp;
 
     public LabResultEvent() {}
 
     public static LabResultEvent of(String eventType, UUID labResultId, UUID patientId,
                                      String testName, Double value, String unit,
-                                     String flag, boolean critical) {
+                                     String flag, boolean critical,
+                                     Instant collectedAt, Instant reportedAt) {
         LabResultEvent event = new LabResultEvent();
         event.eventId = UUID.randomUUID();
         event.eventType = eventType;
@@ -31,6 +34,8 @@ public class LabResultEvent {
         event.unit = unit;
         event.flag = flag;
         event.critical = critical;
+        event.collectedAt = collectedAt;
+        event.reportedAt = reportedAt;
         event.timestamp = Instant.now();
         return event;
     }
@@ -53,6 +58,10 @@ public class LabResultEvent {
     public void setFlag(String flag) { this.flag = flag; }
     public boolean isCritical() { return critical; }
     public void setCritical(boolean critical) { this.critical = critical; }
+    public Instant getCollectedAt() { return collectedAt; }
+    public void setCollectedAt(Instant collectedAt) { this.collectedAt = collectedAt; }
+    public Instant getReportedAt() { return reportedAt; }
+    public void setReportedAt(Instant reportedAt) { this.reportedAt = reportedAt; }
     public Instant getTimestamp() { return timestamp; }
     public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
 
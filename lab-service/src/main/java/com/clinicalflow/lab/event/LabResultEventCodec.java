@@ -0,0 +1,91 @@
+package com.clinicalflow.lab.event;
+
+/**
+ * Binary encoding of {@link LabResultEvent}, version 1.
+ *
+ * <pre>
+ *  1 eventId      uuid (16 bytes)     7 value     double
+ *  2 eventType    code                8 unit      string
+ *  3 eventType    name, if no code    9 flag      code
+ *  4 labResultId  uuid               10 flag      name, if no code
+ *  5 patientId    uuid               11 critical  bool
+ *  6 testName     string             12 timestamp epoch micros
+ * 13 collectedAt  epoch micros       14 reportedAt epoch micros
+ * </pre>
+ *
+ * Enum codes are positions in the tables below plus one, never Java ordinals,
+ * so the enums can be reordered freely. New constants may only be appended to
+ * a table. A value that has no code yet travels as its name in the fallback
+ * field. Field numbers are never reused; new fields take the next free number.
+ * Unknown fields are skipped on decode, so new fields do not break older
+ * consumers.
+ */
+public final class LabResultEventCodec {
+
+    static final String[] EVENT_TYPES = {"RESULT_REPORTED", "CRITICAL_RESULT"};
+    static final String[] FLAGS = {"NORMAL", "LOW", "HIGH", "CRITICAL"};
+
+    private LabResultEventCodec() {}
+
+    public static byte[] encode(LabResultEvent event) {
+        WireWriter out = new WireWriter(128);
+        out.writeUuid(1, event.getEventId());
+        writeEnum(out, 2, 3, EVENT_TYPES, event.getEventType());
+        out.writeUuid(4, event.getLabResultId());
+        out.writeUuid(5, event.getPatientId());
+        out.writeString(6, event.getTestName());
+        out.writeDouble(7, event.getValue());
+        out.writeString(8, event.getUnit());
+        writeEnum(out, 9, 10, FLAGS, event.getFlag());
+        out.writeBoolean(11, event.isCritical());
+        out.writeInstant(12, event.getTimestamp());
+        out.writeInstant(13, event.getCollectedAt());
+        out.writeInstant(14, event.getReportedAt());
+        return out.toByteArray();
+    }
+
+    public static LabResultEvent decode(byte[] bytes) {
+        LabResultEvent event = new LabResultEvent();
+        WireReader in = new WireReader(bytes);
+        for (int field = in.nextField(); field != 0; field = in.nextField()) {
+            switch (field) {
+                case 1 -> event.setEventId(in.readUuid());
+                case 2 -> event.setEventType(enumName(EVENT_TYPES, in.readCode()));
+                case 3 -> event.setEventType(in.readString());
+                case 4 -> event.setLabResultId(in.readUuid());
+                case 5 -> event.setPatientId(in.readUuid());
+                case 6 -> event.setTestName(in.readString());
+                case 7 -> event.setValue(in.readDouble());
+                case 8 -> event.setUnit(in.readString());
+                case 9 -> event.setFlag(enumName(FLAGS, in.readCode()));
+                case 10 -> event.setFlag(in.readString());
+                case 11 -> event.setCritical(in.readBoolean());
+                case 12 -> event.setTimestamp(in.readInstant());
+                case 13 -> event.setCollectedAt(in.readInstant());
+                case 14 -> event.setReportedAt(in.readInstant());
+                default -> in.skip();
+            }
+        }
+        return event;
+    }
+
+    private static void writeEnum(WireWriter out, int codeField, int nameField, String[] table, String name) {
+        if (name == null) return;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i].equals(name)) {
+                out.writeCode(codeField, i + 1);
+                return;
+            }
+        }
+        out.writeString(nameField, name);
+    }
+
+    /**
+     * Names an enum code. A code from a newer producer's table decodes to
+     * {@code UNKNOWN_<code>} instead of failing, so the rest of the event is
+     * still processed.
+     */
+    private static String enumName(String[] table, int code) {
+        return code >= 1 && code <= table.length ? table[code - 1] : "UNKNOWN_" + code;
+    }
+}
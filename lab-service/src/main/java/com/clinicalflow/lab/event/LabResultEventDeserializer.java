@@ -0,0 +1,47 @@
+package com.clinicalflow.lab.event;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reads {@link LabResultEvent}s in whichever encoding the producer recorded in
+ * the {@value WireFormat#HEADER} header. Records without the header predate
+ * the binary format and are read as JSON.
+ */
+public class LabResultEventDeserializer implements Deserializer<LabResultEvent> {
+
+    private static final byte[] BINARY_HEADER = WireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonDeserializer<LabResultEvent> json = new JsonDeserializer<>(LabResultEvent.class, false);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // The JSON target type is fixed; type headers and type properties are ignored.
+    }
+
+    @Override
+    public LabResultEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public LabResultEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) return null;
+        Header format = headers == null ? null : headers.lastHeader(WireFormat.HEADER);
+        if (format != null && Arrays.equals(format.value(), BINARY_HEADER)) {
+            return LabResultEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -1,37 +1,194 @@
 package com.clinicalflow.lab.event;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 public class LabResultEventPublisher {
 
-    private static final Logger log = LoggerFactory.getLogger(LabResultEventPublisher.class);
-
     private final KafkaTemplate<String, LabResultEvent> kafkaTemplate;
     private final String topic;
+    private final Executor callbackExecutor;
+
+    /**
+     * Bounds direct {@link #publish} sends that the broker has not acknowledged
+     * yet. A caller that finds no free permit waits up to {@code acquireTimeoutMs}
+     * and then gets a failed future, instead of piling more records into the
+     * producer buffer. {@link #publishAll} does not take permits: the outbox
+     * relay already bounds its batches, and a rejected send in the middle of a
+     * batch would let the events after it overtake it.
+     */
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final AtomicInteger batchInFlight = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter rejected;
 
+    /**
+     * Send callbacks run on the application task executor rather than on the
+     * producer's network thread. With {@code spring.threads.virtual.enabled}
+     * that executor starts a virtual thread per callback.
+     */
     public LabResultEventPublisher(
             KafkaTemplate<String, LabResultEvent> kafkaTemplate,
-            @Value("${app.kafka.topic.lab-results}") String topic) {
+            @Value("${app.kafka.topic.lab-results}") String topic,
+            @Qualifier("applicationTaskExecutor") Executor callbackExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.kafka.publish.max-in-flight:1000}") int maxInFlight,
+            @Value("${app.kafka.publish.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
         this.kafkaTemplate = kafkaTemplate;
         this.topic = topic;
+        this.callbackExecutor = callbackExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+
+        this.succeeded = publishTimer(topic, "success");
+        this.failed = publishTimer(topic, "failure");
+        this.rejected = Counter.builder("kafka.publish.rejected")
+                .description("Sends refused because the in-flight limit stayed exhausted")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("kafka.publish.in-flight", this, p -> p.maxInFlight - p.inFlight.availablePermits() + p.batchInFlight.get())
+                .description("Sends awaiting broker acknowledgement")
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, LabResultEvent>> publish(LabResultEvent event) {
+        if (!acquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new PublishBackpressureException(topic, maxInFlight));
+        }
+        return send(event, true);
+    }
+
+    /**
+     * Sends a batch of events and flushes once. Events for different patients
+     * go out back to back, so the producer can pipeline them into as few
+     * requests as the partition layout allows. Events for the same patient are
+     * chained: each one is sent only after the broker acknowledged the one
+     * before it, so a failed or late send can never be overtaken by a later
+     * event for that patient. Once the previous send failed, or {@code deadline}
+     * (a {@link System#nanoTime()} value) has passed, the rest of that
+     * patient's events are not sent and their futures fail. The returned
+     * futures are in input order.
+     */
+    public List<CompletableFuture<?>> publishAll(List<LabResultEvent> events, long deadline) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        if (events.isEmpty()) return sends;
+        Map<UUID, CompletableFuture<?>> previous = new HashMap<>();
+        for (LabResultEvent event : events) {
+            CompletableFuture<?> before = previous.get(event.getPatientId());
+            CompletableFuture<?> send = before == null
+                    ? sendUnbounded(event)
+                    : before.thenCompose(acknowledged -> sendBefore(event, deadline));
+            previous.put(event.getPatientId(), send);
+            sends.add(send);
+        }
+        kafkaTemplate.flush();
+        return sends;
+    }
+
+    private CompletableFuture<SendResult<String, LabResultEvent>> sendBefore(LabResultEvent event, long deadline) {
+        if (System.nanoTime() - deadline >= 0) {
+            return CompletableFuture.failedFuture(new TimeoutException(
+                    "Batch deadline passed before event " + event.getEventId() + " could be sent"));
+        }
+        return sendUnbounded(event);
+    }
+
+    private CompletableFuture<SendResult<String, LabResultEvent>> sendUnbounded(LabResultEvent event) {
+        batchInFlight.incrementAndGet();
+        return send(event, false);
+    }
+
+    private CompletableFuture<SendResult<String, LabResultEvent>> send(LabResultEvent event, boolean permit) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, LabResultEvent>> send;
+        try {
+            send = kafkaTemplate.send(topic, event.getPatientId().toString(), event);
+        } catch (RuntimeException e) {
+            release(permit);
+            record(start, e);
+            throw e;
+        }
+        return send.whenCompleteAsync((result, ex) -> {
+            release(permit);
+            record(start, ex);
+        }, callbackExecutor);
+    }
+
+    private void release(boolean permit) {
+        if (permit) {
+            inFlight.release();
+        } else {
+            batchInFlight.decrementAndGet();
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Timer publishTimer(String topic, String outcome) {
+        return Timer.builder("kafka.publish")
+                .description("Time from send to broker acknowledgement")
+                .tags("topic", topic, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void record(long startNanos, Throwable failure) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (failure == null) {
+            succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        failed.record(elapsed, TimeUnit.NANOSECONDS);
+        Counter.builder("kafka.publish.failures")
+                .description("Sends that the broker did not acknowledge, by cause")
+                .tags("topic", topic, "exception", rootCause(failure).getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+        return t;
     }
 
-    public void publish(LabResultEvent event) {
-        log.info("Publishing lab event: {}", event);
-        kafkaTemplate.send(topic, event.getPatientId().toString(), event)
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        log.error("Failed to publish lab event: {}", event, ex);
-                    } else {
-                        log.info("Lab event published to partition {} offset {}",
-                                result.getRecordMetadata().partition(),
-                                result.getRecordMetadata().offset());
-                    }
-                });
+    public static class PublishBackpressureException extends RuntimeException {
+        public PublishBackpressureException(String topic, int maxInFlight) {
+            super("Kafka publish to " + topic + " rejected: " + maxInFlight + " sends already in flight");
+        }
     }
 }
@@ -0,0 +1,51 @@
+package com.clinicalflow.lab.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes {@link LabResultEvent}s as JSON or in the binary format, chosen by the
+ * {@value WireFormat#CONFIG} producer property, and records the choice in the
+ * {@value WireFormat#HEADER} header. JSON stays the default until every
+ * consumer understands the header.
+ */
+public class LabResultEventSerializer implements Serializer<LabResultEvent> {
+
+    private static final byte[] JSON_HEADER = WireFormat.JSON.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BINARY_HEADER = WireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonSerializer<LabResultEvent> json = new JsonSerializer<>();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        Object format = configs.get(WireFormat.CONFIG);
+        binary = format != null && "binary".equalsIgnoreCase(format.toString().trim());
+    }
+
+    @Override
+    public byte[] serialize(String topic, LabResultEvent event) {
+        return serialize(topic, null, event);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, LabResultEvent event) {
+        if (event == null) return null;
+        if (binary) {
+            if (headers != null) headers.add(WireFormat.HEADER, BINARY_HEADER);
+            return LabResultEventCodec.encode(event);
+        }
+        if (headers != null) headers.add(WireFormat.HEADER, JSON_HEADER);
+        return json.serialize(topic, headers, event);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.clinicalflow.lab.event;
+
+import com.clinicalflow.lab.model.OutboxEvent;
+import com.clinicalflow.lab.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records lab events in the outbox table as part of the caller's transaction.
+ * Nothing is sent to Kafka here; {@link OutboxRelay} picks the rows up after
+ * commit, so a rolled-back submission can never leak an event.
+ */
+@Component
+public class LabResultOutbox {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public LabResultOutbox(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(LabResultEvent event) {
+        repository.save(toOutboxEvent(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<LabResultEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (LabResultEvent event : events) {
+            rows.add(toOutboxEvent(event));
+        }
+        repository.saveAll(rows);
+    }
+
+    LabResultEvent read(OutboxEvent row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), LabResultEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload for event " + row.getId(), e);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(LabResultEvent event) {
+        try {
+            return new OutboxEvent(event.getPatientId().toString(), event.getEventType(),
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize lab event: " + event, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.clinicalflow.lab.event;
+
+import com.clinicalflow.lab.service.LabTrendService;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the cached trend series coherent across replicas. Every replica joins
+ * its own consumer group so each one sees every lab result event, including
+ * the ones for results submitted to its peers.
+ */
+@Component
+public class LabTrendInvalidator {
+
+    private final LabTrendService trendService;
+
+    public LabTrendInvalidator(LabTrendService trendService) {
+        this.trendService = trendService;
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topic.lab-results}",
+            groupId = "lab-service-trends-${random.uuid}",
+            autoStartup = "${app.lab.trends.distributed-invalidation:true}")
+    public void onLabResultEvent(LabResultEvent event) {
+        trendService.invalidate(event.getPatientId(), event.getTestName());
+    }
+}
@@ -0,0 +1,102 @@
+package com.clinicalflow.lab.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Appends tagged fields in the event wire format. Each field is a varint key,
+ * {@code fieldNumber << 3 | wireType}, followed by its value. The wire types
+ * are those of protobuf (varint, fixed 64-bit, length-delimited), so a reader
+ * can skip any field it does not know. Null values are omitted.
+ */
+final class WireWriter {
+
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buf;
+    private int pos;
+
+    WireWriter(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    void writeUuid(int field, UUID value) {
+        if (value == null) return;
+        key(field, LENGTH_DELIMITED);
+        rawVarint(16);
+        rawFixed64(value.getMostSignificantBits());
+        rawFixed64(value.getLeastSignificantBits());
+    }
+
+    void writeString(int field, String value) {
+        if (value == null) return;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        key(field, LENGTH_DELIMITED);
+        rawVarint(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    void writeDouble(int field, Double value) {
+        if (value == null) return;
+        key(field, FIXED64);
+        rawFixed64(Double.doubleToRawLongBits(value));
+    }
+
+    void writeBoolean(int field, boolean value) {
+        if (!value) return;
+        key(field, VARINT);
+        rawVarint(1);
+    }
+
+    /** Writes a small non-negative code, such as an enum code. Zero is omitted. */
+    void writeCode(int field, int code) {
+        if (code == 0) return;
+        key(field, VARINT);
+        rawVarint(code);
+    }
+
+    /** Writes microseconds since the epoch, zigzag-encoded so pre-1970 values stay short. */
+    void writeInstant(int field, Instant value) {
+        if (value == null) return;
+        long micros = Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L),
+                value.getNano() / 1_000);
+        key(field, VARINT);
+        rawVarint((micros << 1) ^ (micros >> 63));
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void key(int field, int wireType) {
+        rawVarint(((long) field << 3) | wireType);
+    }
+
+    private void rawVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    private void rawFixed64(long value) {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buf[pos++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private void ensure(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+    }
+}
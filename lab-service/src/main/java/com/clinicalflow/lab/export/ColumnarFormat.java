@@ -0,0 +1,49 @@
+package com.clinicalflow.lab.export;
+
+/**
+ * Layout of an export part file ({@code part-NNNNN.lrc.gz}). The whole file is
+ * gzip-compressed; inside it:
+ *
+ * <pre>
+ * magic "LRCF" (int), version (byte)
+ * row group*: row count (int), column count (byte),
+ *             then per column: column id (byte), byte length (int), bytes
+ * end marker: row count 0
+ * </pre>
+ *
+ * Column encodings, all multi-byte fixed values big-endian:
+ * <ul>
+ *   <li>{@link #ID}, {@link #PATIENT_ID}: 16 bytes per row (most, then least significant half)</li>
+ *   <li>{@link #VALUE}: 8-byte IEEE double per row</li>
+ *   <li>{@link #TEST_NAME}, {@link #UNIT}, {@link #FLAG}, {@link #STATUS}: dictionary encoded.
+ *       The dictionary belongs to the file and grows across row groups: each group starts with
+ *       a varint count of new entries and the entries themselves (varint length, UTF-8), then one
+ *       varint code per row.</li>
+ *   <li>{@link #COLLECTED_AT}: epoch microseconds of the first row (8 bytes), then a varint delta
+ *       per following row. Rows are written in collected-at order, so deltas are never negative.</li>
+ *   <li>{@link #REPORTED_AT}: a presence bitmap, one bit per row, then for each present row a
+ *       zigzag varint of the microseconds from its collected-at time.</li>
+ * </ul>
+ *
+ * Readers skip column ids they do not know.
+ */
+final class ColumnarFormat {
+
+    static final int MAGIC = 0x4C524346; // "LRCF"
+    static final int VERSION = 1;
+
+    static final int ID = 1;
+    static final int PATIENT_ID = 2;
+    static final int TEST_NAME = 3;
+    static final int VALUE = 4;
+    static final int UNIT = 5;
+    static final int FLAG = 6;
+    static final int STATUS = 7;
+    static final int COLLECTED_AT = 8;
+    static final int REPORTED_AT = 9;
+
+    /** Columns written by this version. */
+    static final int COLUMN_COUNT = 9;
+
+    private ColumnarFormat() {}
+}
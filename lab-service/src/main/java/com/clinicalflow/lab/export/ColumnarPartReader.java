@@ -0,0 +1,144 @@
+package com.clinicalflow.lab.export;
+
+import com.clinicalflow.lab.model.ExportedResult;
+import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.ResultStatus;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads an export part back one row group at a time. This is the reference
+ * decoder for the {@link ColumnarFormat} layout.
+ */
+public final class ColumnarPartReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataInputStream in;
+    private final List<String> testNames = new ArrayList<>();
+    private final List<String> units = new ArrayList<>();
+    private final List<String> flags = new ArrayList<>();
+    private final List<String> statuses = new ArrayList<>();
+    private boolean finished;
+
+    public ColumnarPartReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+        int magic = in.readInt();
+        int version = in.readUnsignedByte();
+        if (magic != ColumnarFormat.MAGIC || version != ColumnarFormat.VERSION) {
+            in.close();
+            throw new IOException("Not a version " + ColumnarFormat.VERSION + " lab result export part: " + file);
+        }
+    }
+
+    /** The next row group, or null once the end marker has been read. */
+    public List<ExportedResult> nextRowGroup() throws IOException {
+        if (finished) return null;
+        int n = in.readInt();
+        if (n == 0) {
+            finished = true;
+            return null;
+        }
+
+        UUID[] ids = new UUID[n];
+        UUID[] patientIds = new UUID[n];
+        double[] values = new double[n];
+        int[] testNameCodes = new int[n];
+        int[] unitCodes = new int[n];
+        int[] flagCodes = new int[n];
+        int[] statusCodes = new int[n];
+        long[] collectedAt = new long[n];
+        Long[] reportedAt = new Long[n];
+
+        int columns = in.readUnsignedByte();
+        for (int c = 0; c < columns; c++) {
+            int columnId = in.readUnsignedByte();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            ByteBuffer col = ByteBuffer.wrap(bytes);
+            switch (columnId) {
+                case ColumnarFormat.ID -> { for (int i = 0; i < n; i++) ids[i] = new UUID(col.getLong(), col.getLong()); }
+                case ColumnarFormat.PATIENT_ID -> { for (int i = 0; i < n; i++) patientIds[i] = new UUID(col.getLong(), col.getLong()); }
+                case ColumnarFormat.VALUE -> { for (int i = 0; i < n; i++) values[i] = col.getDouble(); }
+                case ColumnarFormat.TEST_NAME -> decodeDictionary(col, testNames, testNameCodes);
+                case ColumnarFormat.UNIT -> decodeDictionary(col, units, unitCodes);
+                case ColumnarFormat.FLAG -> decodeDictionary(col, flags, flagCodes);
+                case ColumnarFormat.STATUS -> decodeDictionary(col, statuses, statusCodes);
+                case ColumnarFormat.COLLECTED_AT -> {
+                    collectedAt[0] = col.getLong();
+                    for (int i = 1; i < n; i++) collectedAt[i] = collectedAt[i - 1] + readVarint(col);
+                }
+                case ColumnarFormat.REPORTED_AT -> {
+                    byte[] present = new byte[(n + 7) / 8];
+                    col.get(present);
+                    for (int i = 0; i < n; i++) {
+                        if ((present[i >>> 3] & (1 << (i & 7))) != 0) reportedAt[i] = unzigzag(readVarint(col));
+                    }
+                }
+                default -> { /* column added by a later writer */ }
+            }
+        }
+
+        List<ExportedResult> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new ExportedResult(
+                    ids[i],
+                    patientIds[i],
+                    testNames.get(testNameCodes[i]),
+                    values[i],
+                    units.get(unitCodes[i]),
+                    ResultFlag.valueOf(flags.get(flagCodes[i])),
+                    ResultStatus.valueOf(statuses.get(statusCodes[i])),
+                    instant(collectedAt[i]),
+                    reportedAt[i] == null ? null : instant(collectedAt[i] + reportedAt[i])));
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static void decodeDictionary(ByteBuffer col, List<String> dictionary, int[] codes) {
+        long added = readVarint(col);
+        for (long i = 0; i < added; i++) {
+            byte[] bytes = new byte[(int) readVarint(col)];
+            col.get(bytes);
+            dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        Arrays.setAll(codes, i -> (int) readVarint(col));
+    }
+
+    private static long readVarint(ByteBuffer col) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = col.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static Instant instant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,127 @@
+package com.clinicalflow.lab.export;
+
+import com.clinicalflow.lab.model.ExportedResult;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one export part in the {@link ColumnarFormat} layout. Only the row
+ * group being written is held in memory, plus the file's dictionaries, which
+ * are bounded by the number of distinct tests and units.
+ */
+final class ColumnarPartWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final ColumnBuffer column = new ColumnBuffer(BUFFER_SIZE);
+    private final Dictionary testNames = new Dictionary();
+    private final Dictionary units = new Dictionary();
+    private final Dictionary flags = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+
+    ColumnarPartWriter(Path file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.writeByte(ColumnarFormat.VERSION);
+    }
+
+    /** Appends one row group. Rows must be in collected-at order. */
+    void write(List<ExportedResult> rows) throws IOException {
+        if (rows.isEmpty()) return;
+        out.writeInt(rows.size());
+        out.writeByte(ColumnarFormat.COLUMN_COUNT);
+
+        for (ExportedResult r : rows) column.writeUuid(r.id());
+        flush(ColumnarFormat.ID);
+
+        for (ExportedResult r : rows) column.writeUuid(r.patientId());
+        flush(ColumnarFormat.PATIENT_ID);
+
+        testNames.encode(rows, ExportedResult::testName, column);
+        flush(ColumnarFormat.TEST_NAME);
+
+        for (ExportedResult r : rows) column.writeDouble(r.value());
+        flush(ColumnarFormat.VALUE);
+
+        units.encode(rows, ExportedResult::unit, column);
+        flush(ColumnarFormat.UNIT);
+
+        flags.encode(rows, r -> r.flag().name(), column);
+        flush(ColumnarFormat.FLAG);
+
+        statuses.encode(rows, r -> r.status().name(), column);
+        flush(ColumnarFormat.STATUS);
+
+        long previous = micros(rows.get(0).collectedAt());
+        column.writeFixed64(previous);
+        for (int i = 1; i < rows.size(); i++) {
+            long current = micros(rows.get(i).collectedAt());
+            column.writeVarint(current - previous);
+            previous = current;
+        }
+        flush(ColumnarFormat.COLLECTED_AT);
+
+        byte[] present = new byte[(rows.size() + 7) / 8];
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).reportedAt() != null) present[i >>> 3] |= (byte) (1 << (i & 7));
+        }
+        for (byte b : present) column.writeByte(b);
+        for (ExportedResult r : rows) {
+            if (r.reportedAt() != null) column.writeZigZag(micros(r.reportedAt()) - micros(r.collectedAt()));
+        }
+        flush(ColumnarFormat.REPORTED_AT);
+    }
+
+    /** Writes the end marker and finishes the gzip stream. */
+    @Override
+    public void close() throws IOException {
+        out.writeInt(0);
+        out.close();
+    }
+
+    static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private void flush(int columnId) throws IOException {
+        out.writeByte(columnId);
+        out.writeInt(column.size());
+        column.writeTo(out);
+        column.reset();
+    }
+
+    /** File-wide string dictionary; each row group carries only the entries it added. */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        void encode(List<ExportedResult> rows, Function<ExportedResult, String> field, ColumnBuffer column) {
+            List<String> added = new ArrayList<>();
+            for (ExportedResult r : rows) {
+                String value = field.apply(r);
+                if (!codes.containsKey(value)) {
+                    codes.put(value, codes.size());
+                    added.add(value);
+                }
+            }
+            column.writeVarint(added.size());
+            for (String value : added) column.writeString(value);
+            for (ExportedResult r : rows) column.writeVarint(codes.get(field.apply(r)));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.clinicalflow.lab.export;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * State of one export job. The same record is the job's checkpoint on disk,
+ * written after every completed part: the keyset cursor is the
+ * {@code (collectedAt, id)} of the last row in the last completed part, so a
+ * restarted job continues exactly after it.
+ */
+public record ExportJob(
+        UUID id,
+        State state,
+        Instant from,
+        Instant to,
+        List<String> testNames,
+        long rowsWritten,
+        int partsWritten,
+        long bytesWritten,
+        Instant cursorCollectedAt,
+        UUID cursorId,
+        Instant createdAt,
+        Instant updatedAt,
+        String error) {
+
+    public enum State {
+        QUEUED, RUNNING, INTERRUPTED, FAILED, CANCELLED, COMPLETED;
+
+        /** Whether {@code resume} may pick the job up again from its checkpoint. */
+        public boolean resumable() {
+            return this == INTERRUPTED || this == FAILED;
+        }
+    }
+
+    /** Below every uuid in Postgres order, so the first page starts at {@code from} inclusive. */
+    static final UUID MIN_UUID = new UUID(0, 0);
+
+    static ExportJob create(Instant from, Instant to, List<String> testNames) {
+        Instant now = Instant.now();
+        return new ExportJob(UUID.randomUUID(), State.QUEUED, from, to, testNames,
+                0, 0, 0, from, MIN_UUID, now, now, null);
+    }
+
+    /** Share of the date range behind the cursor. */
+    @JsonProperty("progress")
+    public double progress() {
+        if (state == State.COMPLETED) return 1.0;
+        long total = Duration.between(from, to).toMillis();
+        if (total <= 0) return 0.0;
+        return Math.clamp((double) Duration.between(from, cursorCollectedAt).toMillis() / total, 0.0, 1.0);
+    }
+
+    ExportJob withState(State state, String error) {
+        return new ExportJob(id, state, from, to, testNames, rowsWritten, partsWritten, bytesWritten,
+                cursorCollectedAt, cursorId, createdAt, Instant.now(), error);
+    }
+
+    /** Rows written since the last checkpoint, not yet durable. */
+    ExportJob inProgress(long rows, Instant cursorAt, UUID cursor) {
+        return new ExportJob(id, state, from, to, testNames, rowsWritten + rows, partsWritten, bytesWritten,
+                cursorAt, cursor, createdAt, Instant.now(), error);
+    }
+
+    ExportJob partCompleted(long rows, long bytes, Instant cursorAt, UUID cursor) {
+        return new ExportJob(id, state, from, to, testNames, rowsWritten + rows, partsWritten + 1,
+                bytesWritten + bytes, cursorAt, cursor, createdAt, Instant.now(), error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.clinicalflow.lab.export;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Results collected in {@code [from, to)}, optionally limited to some tests.
+ * {@code to} defaults to the time the job is created.
+ */
+public record ExportRequest(Instant from, Instant to, List<String> testNames) {}
@@ -0,0 +1,367 @@
+package com.clinicalflow.lab.export;
+
+import com.clinicalflow.lab.export.ExportJob.State;
+import com.clinicalflow.lab.model.ExportedResult;
+import com.clinicalflow.lab.repository.LabResultRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports lab results to gzip-compressed columnar part files under
+ * {@code app.lab.export.directory/<jobId>/}. A job walks {@code lab_results}
+ * in {@code (collected_at, id)} keyset pages; each page becomes one row group,
+ * so memory use depends on the row-group size and never on the export size.
+ *
+ * A part is written to a temporary file and renamed when complete, then the
+ * job's checkpoint ({@code job.json}) is replaced. A job that is interrupted
+ * by a shutdown or crash, or that failed, resumes from its last checkpoint and
+ * rewrites only the part it was working on.
+ */
+@Service
+public class LabResultExportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LabResultExportService.class);
+
+    private static final String CHECKPOINT = "job.json";
+
+    private final LabResultRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int rowGroupSize;
+    private final int rowGroupsPerPart;
+    private final int maxTestNames;
+    private final boolean resumeOnStartup;
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<UUID, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Set<UUID> cancelRequested = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    private final Counter rowsExported;
+    private final Counter bytesExported;
+
+    public LabResultExportService(LabResultRepository repository,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.lab.export.directory:data/exports}") Path directory,
+                                  @Value("${app.lab.export.row-group-size:10000}") int rowGroupSize,
+                                  @Value("${app.lab.export.row-groups-per-part:50}") int rowGroupsPerPart,
+                                  @Value("${app.lab.export.max-test-names:500}") int maxTestNames,
+                                  @Value("${app.lab.export.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                  @Value("${app.lab.export.resume-on-startup:true}") boolean resumeOnStartup)
+            throws IOException {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.directory = Files.createDirectories(directory);
+        this.rowGroupSize = rowGroupSize;
+        this.rowGroupsPerPart = rowGroupsPerPart;
+        this.maxTestNames = maxTestNames;
+        this.resumeOnStartup = resumeOnStartup;
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs,
+                Thread.ofPlatform().name("lab-export-", 1).factory());
+
+        loadCheckpoints();
+
+        this.rowsExported = Counter.builder("lab.export.rows")
+                .description("Lab results written to export files")
+                .register(meterRegistry);
+        this.bytesExported = Counter.builder("lab.export.bytes")
+                .description("Compressed bytes of completed export parts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("lab.export.running", jobs, j -> j.values().stream().filter(x -> x.state() == State.RUNNING).count())
+                .description("Export jobs currently running")
+                .register(meterRegistry);
+    }
+
+    public ExportJob submit(ExportRequest request) {
+        if (request == null || request.from() == null) {
+            throw new InvalidExportRequestException("from is required");
+        }
+        Instant to = request.to() != null ? request.to() : Instant.now();
+        if (!request.from().isBefore(to)) {
+            throw new InvalidExportRequestException("from must be before to");
+        }
+        List<String> testNames = request.testNames() == null ? List.of() : request.testNames().stream()
+                .filter(name -> name != null && !name.isBlank())
+                .distinct()
+                .toList();
+        if (testNames.size() > maxTestNames) {
+            throw new InvalidExportRequestException("At most " + maxTestNames + " test names per export");
+        }
+
+        ExportJob job = ExportJob.create(request.from(), to, testNames);
+        checkpoint(job);
+        jobs.put(job.id(), job);
+        executor.execute(() -> run(job.id()));
+        log.info("Export {} queued: {} to {}, {} tests", job.id(), job.from(), job.to(),
+                testNames.isEmpty() ? "all" : testNames.size());
+        return job;
+    }
+
+    public ExportJob find(UUID id) {
+        return Optional.ofNullable(jobs.get(id))
+                .orElseThrow(() -> new ExportJobNotFoundException("Export job not found: " + id));
+    }
+
+    public List<ExportJob> findAll() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ExportJob::createdAt).reversed())
+                .toList();
+    }
+
+    public ExportJob resume(UUID id) {
+        ExportJob current = find(id);
+        if (!current.state().resumable()) {
+            throw new ExportJobStateException("Export job " + id + " is " + current.state() + " and cannot be resumed");
+        }
+        ExportJob resumed = current.withState(State.QUEUED, null);
+        if (!jobs.replace(id, current, resumed)) {
+            throw new ExportJobStateException("Export job " + id + " changed state concurrently");
+        }
+        executor.execute(() -> run(id));
+        return resumed;
+    }
+
+    /** A job that is not running is cancelled at once; a running one stops before its next row group. */
+    public ExportJob cancel(UUID id) {
+        ExportJob current = find(id);
+        switch (current.state()) {
+            case RUNNING -> {
+                cancelRequested.add(id);
+                return current;
+            }
+            case QUEUED, INTERRUPTED, FAILED -> {
+                ExportJob cancelled = current.withState(State.CANCELLED, null);
+                if (!jobs.replace(id, current, cancelled)) {
+                    throw new ExportJobStateException("Export job " + id + " changed state concurrently");
+                }
+                checkpoint(cancelled);
+                return cancelled;
+            }
+            default -> throw new ExportJobStateException("Export job " + id + " is already " + current.state());
+        }
+    }
+
+    /** Jobs left QUEUED or RUNNING by the previous process are picked up again once the app is ready. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ExportJob job : jobs.values()) {
+            if (job.state() != State.INTERRUPTED) continue;
+            if (resumeOnStartup) {
+                log.info("Resuming export {} from part {} ({} rows written)",
+                        job.id(), job.partsWritten(), job.rowsWritten());
+                resume(job.id());
+            } else {
+                log.info("Export {} was interrupted; resume it with POST /api/lab-results/exports/{}/resume",
+                        job.id(), job.id());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Export jobs did not stop within 30s; they resume from their last checkpoint");
+        }
+    }
+
+    private void run(UUID id) {
+        ExportJob start = jobs.computeIfPresent(id, (key, job) -> job.state() == State.QUEUED
+                ? job.withState(State.RUNNING, null)
+                : job);
+        if (start == null || start.state() != State.RUNNING) return;
+
+        ExportJob committed = start;
+        try {
+            Path jobDir = Files.createDirectories(directory.resolve(id.toString()));
+            discardUncommittedParts(jobDir, committed.partsWritten());
+            checkpoint(committed);
+
+            boolean more = true;
+            while (more) {
+                PartOutcome part = writePart(jobDir, committed);
+                if (part == null) {
+                    boolean cancelled = cancelRequested.remove(id);
+                    finish(committed, cancelled ? State.CANCELLED : State.INTERRUPTED, null);
+                    return;
+                }
+                committed = part.job();
+                more = part.more();
+                checkpoint(committed);
+                jobs.put(id, committed);
+            }
+            finish(committed, State.COMPLETED, null);
+            log.info("Export {} completed: {} rows in {} parts, {} bytes",
+                    id, committed.rowsWritten(), committed.partsWritten(), committed.bytesWritten());
+        } catch (IOException | RuntimeException e) {
+            log.error("Export {} failed after {} rows; resume continues from part {}",
+                    id, committed.rowsWritten(), committed.partsWritten(), e);
+            finish(committed, State.FAILED, e.getMessage());
+        }
+    }
+
+    private record PartOutcome(ExportJob job, boolean more) {}
+
+    /**
+     * Writes the next part, or returns null if the job was stopped before it
+     * finished; the partial file is dropped. The returned job is the new
+     * checkpoint, and {@code more} is false once a page came back short.
+     */
+    private PartOutcome writePart(Path jobDir, ExportJob committed) throws IOException {
+        Path part = jobDir.resolve(partName(committed.partsWritten()));
+        Path tmp = jobDir.resolve(part.getFileName() + ".tmp");
+
+        long rows = 0;
+        Instant cursorAt = committed.cursorCollectedAt();
+        UUID cursor = committed.cursorId();
+        boolean more = true;
+        boolean stopped = false;
+        try (ColumnarPartWriter writer = new ColumnarPartWriter(tmp)) {
+            for (int group = 0; group < rowGroupsPerPart && more; group++) {
+                if (stopRequested(committed.id())) {
+                    stopped = true;
+                    break;
+                }
+                List<ExportedResult> page = fetch(committed, cursorAt, cursor);
+                writer.write(page);
+                rowsExported.increment(page.size());
+                more = page.size() == rowGroupSize;
+                if (!page.isEmpty()) {
+                    ExportedResult last = page.get(page.size() - 1);
+                    cursorAt = last.collectedAt();
+                    cursor = last.id();
+                    rows += page.size();
+                    jobs.put(committed.id(), committed.inProgress(rows, cursorAt, cursor));
+                }
+            }
+        }
+        if (stopped || rows == 0) {
+            Files.deleteIfExists(tmp);
+            return stopped ? null : new PartOutcome(committed, false);
+        }
+
+        Files.move(tmp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        long bytes = Files.size(part);
+        bytesExported.increment(bytes);
+        return new PartOutcome(committed.partCompleted(rows, bytes, cursorAt, cursor), more);
+    }
+
+    /** Each page is its own read-only transaction, so exports read from the replica when one is configured. */
+    private List<ExportedResult> fetch(ExportJob job, Instant afterAt, UUID afterId) {
+        Limit limit = Limit.of(rowGroupSize);
+        return readOnlyTransaction.execute(status -> job.testNames().isEmpty()
+                ? repository.findExportPage(afterAt, afterId, job.to(), limit)
+                : repository.findExportPageForTests(afterAt, afterId, job.to(), job.testNames(), limit));
+    }
+
+    private boolean stopRequested(UUID id) {
+        return shuttingDown || cancelRequested.contains(id);
+    }
+
+    private void finish(ExportJob committed, State state, String error) {
+        cancelRequested.remove(committed.id());
+        ExportJob finished = committed.withState(state, error);
+        jobs.put(finished.id(), finished);
+        try {
+            checkpoint(finished);
+        } catch (UncheckedIOException e) {
+            log.error("Cannot record state {} for export {}", state, finished.id(), e);
+        }
+    }
+
+    /** Parts at or beyond the checkpoint were renamed after the last checkpoint, or never finished. */
+    private static void discardUncommittedParts(Path jobDir, int committedParts) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(jobDir, "part-*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp") || partIndex(name) >= committedParts) Files.delete(file);
+            }
+        }
+    }
+
+    private void checkpoint(ExportJob job) {
+        try {
+            Path jobDir = Files.createDirectories(directory.resolve(job.id().toString()));
+            Path tmp = jobDir.resolve(CHECKPOINT + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), job);
+            Files.move(tmp, jobDir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint for export " + job.id(), e);
+        }
+    }
+
+    private void loadCheckpoints() throws IOException {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path file = dir.resolve(CHECKPOINT);
+                if (!Files.exists(file)) continue;
+                try {
+                    ExportJob job = objectMapper.readValue(file.toFile(), ExportJob.class);
+                    if (job.state() == State.QUEUED || job.state() == State.RUNNING) {
+                        job = job.withState(State.INTERRUPTED, null);
+                    }
+                    jobs.put(job.id(), job);
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable export checkpoint {}", file, e);
+                }
+            }
+        }
+        if (!jobs.isEmpty()) log.info("Loaded {} export jobs from {}", jobs.size(), directory);
+    }
+
+    private static String partName(int index) {
+        return "part-%05d.lrc.gz".formatted(index);
+    }
+
+    private static int partIndex(String fileName) {
+        return Integer.parseInt(fileName.substring("part-".length(), "part-".length() + 5));
+    }
+
+    public static class ExportJobNotFoundException extends RuntimeException {
+        public ExportJobNotFoundException(String message) { super(message); }
+    }
+
+    public static class InvalidExportRequestException extends RuntimeException {
+        public InvalidExportRequestException(String message) { super(message); }
+    }
+
+    public static class ExportJobStateException extends RuntimeException {
+        public ExportJobStateException(String message) { super(message); }
+    }
+}
@@ -0,0 +1,16 @@
+package com.clinicalflow.lab.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** Projection row streamed by the lab result export, one per exported result. */
+public record ExportedResult(
+        UUID id,
+        UUID patientId,
+        String testName,
+        Double value,
+        String unit,
+        ResultFlag flag,
+        ResultStatus status,
+        Instant collectedAt,
+        Instant reportedAt) {}
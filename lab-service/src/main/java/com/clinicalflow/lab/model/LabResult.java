@@ -3,6 +3,7 @@ package com.clinicalflow.lab.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -34,6 +35,13 @@ public class LabResult {
     private Double referenceMin;
     private Double referenceMax;
 
+    /** Optional demographics used to pick age- and sex-specific reference bands. */
+    @Enumerated(EnumType.STRING)
+    private Sex patientSex;
+
+    @PositiveOrZero(message = "Patient age must not be negative")
+    private Integer patientAgeYears;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ResultFlag flag = ResultFlag.NORMAL;
@@ -50,35 +58,6 @@ public class LabResult {
     @PrePersist
     void onCreate() {
         if (collectedAt == null) collectedAt = Instant.now();
-        evaluateFlag();
-    }
-
-    /**
-     * Clinical flag evaluation based on reference ranges.
-     * Critical values trigger immediate notification workflows.
-     *
-     * In real clinical practice, critical values (also called "panic values")
-     * require immediate clinician notification — typically within 30 minutes.
-     */
-    public void evaluateFlag() {
-        if (referenceMin == null || referenceMax == null) {
-            flag = ResultFlag.NORMAL;
-            return;
-        }
-
-        double range = referenceMax - referenceMin;
-        double criticalLowThreshold = referenceMin - (range * 0.5);
-        double criticalHighThreshold = referenceMax + (range * 0.5);
-
-        if (value < criticalLowThreshold || value > criticalHighThreshold) {
-            flag = ResultFlag.CRITICAL;
-        } else if (value < referenceMin) {
-            flag = ResultFlag.LOW;
-        } else if (value > referenceMax) {
-            flag = ResultFlag.HIGH;
-        } else {
-            flag = ResultFlag.NORMAL;
-        }
     }
 
     public boolean isCritical() {
@@ -112,6 +91,12 @@ public class LabResult {
     public Double getReferenceMax() { return referenceMax; }
     public void setReferenceMax(Double referenceMax) { this.referenceMax = referenceMax; }
 
+    public Sex getPatientSex() { return patientSex; }
+    public void setPatientSex(Sex patientSex) { this.patientSex = patientSex; }
+
+    public Integer getPatientAgeYears() { return patientAgeYears; }
+    public void setPatientAgeYears(Integer patientAgeYears) { this.patientAgeYears = patientAgeYears; }
+
     public ResultFlag getFlag() { return flag; }
     public void setFlag(ResultFlag flag) { this.flag = flag; }
 
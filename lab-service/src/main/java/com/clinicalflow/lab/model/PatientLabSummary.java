@@ -0,0 +1,39 @@
+package com.clinicalflow.lab.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * What a chart shows before any history is loaded: the latest result per
+ * test, counts per flag, how many results still await verification, and the
+ * most recent critical value. {@code updatedAt} is null for a patient with no
+ * results.
+ */
+public record PatientLabSummary(
+        UUID patientId,
+        long totalResults,
+        Map<ResultFlag, Long> flagCounts,
+        long pendingVerification,
+        LastCritical lastCritical,
+        List<LatestResult> latestByTest,
+        Instant updatedAt) {
+
+    public record LatestResult(
+            String testName,
+            UUID resultId,
+            Double value,
+            String unit,
+            ResultFlag flag,
+            ResultStatus status,
+            Instant collectedAt,
+            Instant reportedAt) {}
+
+    public record LastCritical(
+            UUID resultId,
+            String testName,
+            Double value,
+            String unit,
+            Instant collectedAt) {}
+}
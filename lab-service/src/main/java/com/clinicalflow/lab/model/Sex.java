@@ -0,0 +1,6 @@
+package com.clinicalflow.lab.model;
+
+public enum Sex {
+    MALE,
+    FEMALE
+}
@@ -0,0 +1,6 @@
+package com.clinicalflow.lab.model;
+
+import java.time.Instant;
+
+/** Projection row used to build a {@link TrendSeries} without loading full entities. */
+public record TrendSample(Instant collectedAt, Double value, String unit) {}
@@ -0,0 +1,58 @@
+package com.clinicalflow.lab.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable columnar series of one test for one patient: collection times as
+ * epoch millis and values as primitive doubles, both sorted by time. A point
+ * costs 16 bytes instead of a full {@link LabResult} entity.
+ */
+public final class TrendSeries {
+
+    private final long[] timestamps;
+    private final double[] values;
+    private final String unit;
+
+    private TrendSeries(long[] timestamps, double[] values, String unit) {
+        this.timestamps = timestamps;
+        this.values = values;
+        this.unit = unit;
+    }
+
+    /** Samples must be ordered by collection time. */
+    public static TrendSeries of(List<TrendSample> samples) {
+        int n = samples.size();
+        long[] timestamps = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            TrendSample sample = samples.get(i);
+            timestamps[i] = sample.collectedAt().toEpochMilli();
+            values[i] = sample.value();
+        }
+        String unit = n == 0 ? null : samples.get(n - 1).unit();
+        return new TrendSeries(timestamps, values, unit);
+    }
+
+    public int size() { return timestamps.length; }
+    public String unit() { return unit; }
+
+    /** First index with timestamp >= {@code from}. */
+    public int lowerBound(long from) {
+        int i = Arrays.binarySearch(timestamps, from);
+        if (i < 0) return -i - 1;
+        while (i > 0 && timestamps[i - 1] == from) i--;
+        return i;
+    }
+
+    /** First index with timestamp > {@code to}. */
+    public int upperBound(long to) {
+        int i = Arrays.binarySearch(timestamps, to);
+        if (i < 0) return -i - 1;
+        while (i < timestamps.length && timestamps[i] == to) i++;
+        return i;
+    }
+
+    public long timestampAt(int index) { return timestamps[index]; }
+    public double valueAt(int index) { return values[index]; }
+}
@@ -0,0 +1,144 @@
+package com.clinicalflow.lab.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catalog reads and DDL for the monthly partitions of {@code lab_results}
+ * (see V6). A partition is named {@code lab_results_YYYY_MM} and covers one
+ * UTC calendar month of collected_at, so the month is read back from the
+ * name. Everything runs on the caller's transaction. Schema and tablespace
+ * names are interpolated into DDL, so callers must pass validated identifiers.
+ */
+@Repository
+public class LabResultPartitionRepository {
+
+    /** A month that has been detached into the archive schema. */
+    public record ArchivedPartition(YearMonth month, String tablespace) {}
+
+    private static final Pattern MONTHLY = Pattern.compile("lab_results_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbc;
+
+    public LabResultPartitionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Transaction-scoped advisory lock, so one instance maintains partitions at a time. */
+    public boolean tryLock(long key) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, key));
+    }
+
+    /**
+     * Bounds how long the DDL below may queue for its table locks. A waiting
+     * ALTER blocks every later query on the table, so giving up and retrying
+     * on the next run is better than waiting behind a long report.
+     */
+    public void setLockTimeout(Duration timeout) {
+        jdbc.execute("set local lock_timeout = " + timeout.toMillis());
+    }
+
+    /** Months attached to {@code lab_results}, oldest first. */
+    public List<YearMonth> findAttachedMonths() {
+        return jdbc.queryForList("""
+                        select c.relname
+                        from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        where i.inhparent = 'lab_results'::regclass
+                        order by c.relname""", String.class)
+                .stream().map(LabResultPartitionRepository::month).filter(Objects::nonNull).toList();
+    }
+
+    /** Months already detached into {@code schema}, oldest first, with their tablespace ("" for the default). */
+    public List<ArchivedPartition> findArchivedPartitions(String schema) {
+        return jdbc.query("""
+                        select c.relname, coalesce(t.spcname, '') as tablespace
+                        from pg_class c
+                        join pg_namespace n on n.oid = c.relnamespace
+                        left join pg_tablespace t on t.oid = c.reltablespace
+                        where n.nspname = ? and c.relkind = 'r'
+                        order by c.relname""",
+                        (rs, row) -> {
+                            YearMonth month = month(rs.getString("relname"));
+                            return month == null ? null : new ArchivedPartition(month, rs.getString("tablespace"));
+                        },
+                        schema)
+                .stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Creates the month's table on its own and then attaches it. ATTACH only
+     * takes a SHARE UPDATE EXCLUSIVE lock on {@code lab_results}, which reads
+     * and writes do not wait for; CREATE TABLE ... PARTITION OF would take an
+     * ACCESS EXCLUSIVE one. Attaching scans the default partition for rows
+     * that belong to the new month and fails if it finds any, so rows already
+     * there, such as a result with a mistyped future collected_at, are first
+     * moved into the new table. Returns how many rows were moved.
+     */
+    public int createPartition(YearMonth month) {
+        String table = tableName(month);
+        String from = start(month);
+        String to = start(month.plusMonths(1));
+        jdbc.execute("create table " + table + " (like lab_results including defaults including constraints)");
+        int moved = jdbc.update("""
+                with moved as (
+                    delete from lab_results_default
+                    where collected_at >= ?::timestamptz and collected_at < ?::timestamptz
+                    returning *
+                )
+                insert into %s select * from moved""".formatted(table), from, to);
+        jdbc.execute("alter table lab_results attach partition " + table
+                + " for values from ('" + from + "') to ('" + to + "')");
+        return moved;
+    }
+
+    /**
+     * Detaches the month and moves it into {@code schema}. The table keeps its
+     * rows and indexes; it just stops being part of {@code lab_results}.
+     * DETACH takes an ACCESS EXCLUSIVE lock on {@code lab_results} for the
+     * catalog change (the CONCURRENTLY form is not allowed while a default
+     * partition exists), so run it under a lock timeout.
+     */
+    public void detachToArchive(YearMonth month, String schema) {
+        String table = tableName(month);
+        jdbc.execute("alter table lab_results detach partition " + table);
+        jdbc.execute("alter table " + table + " set schema " + schema);
+    }
+
+    /** Copies an archived month and its indexes into {@code tablespace}; takes time proportional to its size. */
+    public void moveToTablespace(YearMonth month, String schema, String tablespace) {
+        String table = schema + "." + tableName(month);
+        jdbc.execute("alter table " + table + " set tablespace " + tablespace);
+        for (String index : jdbc.queryForList(
+                "select indexrelid::regclass::text from pg_index where indrelid = ?::regclass", String.class, table)) {
+            jdbc.execute("alter index " + index + " set tablespace " + tablespace);
+        }
+    }
+
+    /** Rows that fell outside every monthly partition. */
+    public long countDefaultRows() {
+        Long rows = jdbc.queryForObject("select count(*) from lab_results_default", Long.class);
+        return rows == null ? 0 : rows;
+    }
+
+    static String tableName(YearMonth month) {
+        return "lab_results_%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static String start(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+
+    private static YearMonth month(String table) {
+        Matcher m = MONTHLY.matcher(table);
+        return m.matches() ? YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))) : null;
+    }
+}
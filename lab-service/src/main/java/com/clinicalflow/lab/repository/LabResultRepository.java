@@ -1,9 +1,16 @@
 package com.clinicalflow.lab.repository;
 
+import com.clinicalflow.lab.model.ExportedResult;
 import com.clinicalflow.lab.model.LabResult;
-import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.ResultStatus;
+import com.clinicalflow.lab.model.TrendSample;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,5 +20,70 @@ public interface LabResultRepository extends JpaRepository<LabResult, UUID> {
 
     List<LabResult> findByPatientIdAndTestNameOrderByCollectedAtDesc(UUID patientId, String testName);
 
-    List<LabResult> findByFlag(ResultFlag flag);
+    // --- Bounded on collected_at, so Postgres only visits the partitions from `since` on. ---
+
+    List<LabResult> findByPatientIdAndCollectedAtGreaterThanEqualOrderByCollectedAtDesc(UUID patientId, Instant since);
+
+    List<LabResult> findByPatientIdAndTestNameAndCollectedAtGreaterThanEqualOrderByCollectedAtDesc(
+            UUID patientId, String testName, Instant since);
+
+    // --- Critical worklist. The flag and VERIFIED literals must stay inlined so the
+    // predicate matches the partial index idx_lab_results_critical_open. ---
+
+    @Query("""
+            select r from LabResult r
+            where r.flag = com.clinicalflow.lab.model.ResultFlag.CRITICAL
+              and r.status <> com.clinicalflow.lab.model.ResultStatus.VERIFIED
+              and r.status in :statuses
+              and r.reportedAt >= :since
+            order by r.reportedAt, r.id""")
+    List<LabResult> findOpenCriticalFirstPage(Collection<ResultStatus> statuses, Instant since, Limit limit);
+
+    @Query("""
+            select r from LabResult r
+            where r.flag = com.clinicalflow.lab.model.ResultFlag.CRITICAL
+              and r.status <> com.clinicalflow.lab.model.ResultStatus.VERIFIED
+              and r.status in :statuses
+              and r.reportedAt >= :since
+              and (r.reportedAt > :reportedAt or (r.reportedAt = :reportedAt and r.id > :id))
+            order by r.reportedAt, r.id""")
+    List<LabResult> findOpenCriticalPageAfter(Collection<ResultStatus> statuses, Instant since,
+                                              Instant reportedAt, UUID id, Limit limit);
+
+    @Query("""
+            select new com.clinicalflow.lab.model.TrendSample(r.collectedAt, r.value, r.unit)
+            from LabResult r
+            where r.patientId = :patientId and r.testName = :testName
+            order by r.collectedAt""")
+    List<TrendSample> findTrendSamples(UUID patientId, String testName);
+
+    // --- Export. Keyset pages in (collectedAt, id) order; the row comparison is what
+    // lets Postgres use it as an index condition on idx_lab_results_collected_id. ---
+
+    @Query("""
+            select new com.clinicalflow.lab.model.ExportedResult(
+                r.id, r.patientId, r.testName, r.value, r.unit, r.flag, r.status, r.collectedAt, r.reportedAt)
+            from LabResult r
+            where r.collectedAt < :to
+              and (r.collectedAt, r.id) > (:afterAt, :afterId)
+            order by r.collectedAt, r.id""")
+    List<ExportedResult> findExportPage(Instant afterAt, UUID afterId, Instant to, Limit limit);
+
+    @Query("""
+            select new com.clinicalflow.lab.model.ExportedResult(
+                r.id, r.patientId, r.testName, r.value, r.unit, r.flag, r.status, r.collectedAt, r.reportedAt)
+            from LabResult r
+            where r.collectedAt < :to
+              and (r.collectedAt, r.id) > (:afterAt, :afterId)
+              and r.testName in :testNames
+            order by r.collectedAt, r.id""")
+    List<ExportedResult> findExportPageForTests(Instant afterAt, UUID afterId, Instant to,
+                                                Collection<String> testNames, Limit limit);
+
+    /** Returns 0 when the result is already verified. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update LabResult r set r.status = com.clinicalflow.lab.model.ResultStatus.VERIFIED
+            where r.id = :id and r.status <> com.clinicalflow.lab.model.ResultStatus.VERIFIED""")
+    int markVerified(UUID id);
 }
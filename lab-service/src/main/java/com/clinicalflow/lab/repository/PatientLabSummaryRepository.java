@@ -0,0 +1,297 @@
+package com.clinicalflow.lab.repository;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.PatientLabSummary;
+import com.clinicalflow.lab.model.PatientLabSummary.LastCritical;
+import com.clinicalflow.lab.model.PatientLabSummary.LatestResult;
+import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.ResultStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads and maintains {@code lab_patient_summary} and
+ * {@code lab_patient_latest_results}. Writes are plain JDBC batches on the
+ * caller's transaction: counters are added in the upsert itself and the
+ * latest and last-critical rows only move forward in (collected_at, id)
+ * order, so concurrent writers never lose an update. Callers must touch
+ * patients in a stable order, summary row before latest rows, to keep
+ * batches from deadlocking each other.
+ */
+@Repository
+public class PatientLabSummaryRepository {
+
+    /** Increments for one patient's summary row. */
+    public record CountDelta(UUID patientId, long normal, long low, long high, long critical, long pending) {}
+
+    private static final String ADD_COUNTS = """
+            insert into lab_patient_summary as s (patient_id, normal_count, low_count, high_count,
+                                                  critical_count, pending_verification_count, updated_at)
+            values (?, ?, ?, ?, ?, ?, now())
+            on conflict (patient_id) do update
+            set normal_count               = s.normal_count + excluded.normal_count,
+                low_count                  = s.low_count + excluded.low_count,
+                high_count                 = s.high_count + excluded.high_count,
+                critical_count             = s.critical_count + excluded.critical_count,
+                pending_verification_count = s.pending_verification_count + excluded.pending_verification_count,
+                updated_at                 = now()""";
+
+    private static final String ADVANCE_LAST_CRITICAL = """
+            update lab_patient_summary
+            set last_critical_result_id    = ?,
+                last_critical_test_name    = ?,
+                last_critical_value        = ?,
+                last_critical_unit         = ?,
+                last_critical_collected_at = ?
+            where patient_id = ?
+              and (last_critical_collected_at is null
+                   or (last_critical_collected_at, last_critical_result_id) < (?, ?))""";
+
+    private static final String ADVANCE_LATEST = """
+            insert into lab_patient_latest_results as l (patient_id, test_name, result_id, value, unit, flag,
+                                                         status, collected_at, reported_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (patient_id, test_name) do update
+            set result_id    = excluded.result_id,
+                value        = excluded.value,
+                unit         = excluded.unit,
+                flag         = excluded.flag,
+                status       = excluded.status,
+                collected_at = excluded.collected_at,
+                reported_at  = excluded.reported_at
+            where (l.collected_at, l.result_id) < (excluded.collected_at, excluded.result_id)""";
+
+    // --- Rebuild from lab_results. The full rebuild matches the V4 backfill. ---
+
+    private static final String REBUILD_COUNTS = """
+            update lab_patient_summary s
+            set normal_count               = c.normal_count,
+                low_count                  = c.low_count,
+                high_count                 = c.high_count,
+                critical_count             = c.critical_count,
+                pending_verification_count = c.pending_count,
+                updated_at                 = now()
+            from (select count(*) filter (where flag = 'NORMAL')     as normal_count,
+                         count(*) filter (where flag = 'LOW')        as low_count,
+                         count(*) filter (where flag = 'HIGH')       as high_count,
+                         count(*) filter (where flag = 'CRITICAL')   as critical_count,
+                         count(*) filter (where status <> 'VERIFIED') as pending_count
+                  from lab_results
+                  where patient_id = ?) c
+            where s.patient_id = ?""";
+
+    private static final String REBUILD_LAST_CRITICAL = """
+            update lab_patient_summary s
+            set last_critical_result_id    = c.id,
+                last_critical_test_name    = c.test_name,
+                last_critical_value        = c.value,
+                last_critical_unit         = c.unit,
+                last_critical_collected_at = c.collected_at
+            from (select 1) one
+            left join (select id, test_name, value, unit, collected_at
+                       from lab_results
+                       where patient_id = ? and flag = 'CRITICAL'
+                       order by collected_at desc, id desc
+                       limit 1) c on true
+            where s.patient_id = ?""";
+
+    private static final String REBUILD_LATEST = """
+            insert into lab_patient_latest_results (patient_id, test_name, result_id, value, unit, flag, status,
+                                                    collected_at, reported_at)
+            select distinct on (test_name)
+                   patient_id, test_name, id, value, unit, flag, status, collected_at, reported_at
+            from lab_results
+            where patient_id = ?
+            order by test_name, collected_at desc, id desc""";
+
+    private static final String REBUILD_ALL_COUNTS = """
+            insert into lab_patient_summary (patient_id, normal_count, low_count, high_count, critical_count,
+                                             pending_verification_count)
+            select patient_id,
+                   count(*) filter (where flag = 'NORMAL'),
+                   count(*) filter (where flag = 'LOW'),
+                   count(*) filter (where flag = 'HIGH'),
+                   count(*) filter (where flag = 'CRITICAL'),
+                   count(*) filter (where status <> 'VERIFIED')
+            from lab_results
+            group by patient_id""";
+
+    private static final String REBUILD_ALL_LAST_CRITICAL = """
+            update lab_patient_summary s
+            set last_critical_result_id    = c.id,
+                last_critical_test_name    = c.test_name,
+                last_critical_value        = c.value,
+                last_critical_unit         = c.unit,
+                last_critical_collected_at = c.collected_at
+            from (select distinct on (patient_id) patient_id, id, test_name, value, unit, collected_at
+                  from lab_results
+                  where flag = 'CRITICAL'
+                  order by patient_id, collected_at desc, id desc) c
+            where s.patient_id = c.patient_id""";
+
+    private static final String REBUILD_ALL_LATEST = """
+            insert into lab_patient_latest_results (patient_id, test_name, result_id, value, unit, flag, status,
+                                                    collected_at, reported_at)
+            select distinct on (patient_id, test_name)
+                   patient_id, test_name, id, value, unit, flag, status, collected_at, reported_at
+            from lab_results
+            order by patient_id, test_name, collected_at desc, id desc""";
+
+    private final JdbcTemplate jdbc;
+
+    public PatientLabSummaryRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<PatientLabSummary> findByPatientId(UUID patientId) {
+        List<LatestResult> latest = jdbc.query("""
+                select test_name, result_id, value, unit, flag, status, collected_at, reported_at
+                from lab_patient_latest_results
+                where patient_id = ?
+                order by test_name""", PatientLabSummaryRepository::latestResult, patientId);
+
+        return jdbc.query("""
+                select * from lab_patient_summary where patient_id = ?""",
+                (rs, row) -> summary(rs, latest), patientId).stream().findFirst();
+    }
+
+    public void addCounts(List<CountDelta> deltas) {
+        jdbc.batchUpdate(ADD_COUNTS, deltas, deltas.size(), (ps, d) -> {
+            ps.setObject(1, d.patientId());
+            ps.setLong(2, d.normal());
+            ps.setLong(3, d.low());
+            ps.setLong(4, d.high());
+            ps.setLong(5, d.critical());
+            ps.setLong(6, d.pending());
+        });
+    }
+
+    /** Each result replaces its patient's last critical value only if it was collected later. */
+    public void advanceLastCritical(List<LabResult> criticals) {
+        jdbc.batchUpdate(ADVANCE_LAST_CRITICAL, criticals, criticals.size(), (ps, r) -> {
+            ps.setObject(1, r.getId());
+            ps.setString(2, r.getTestName());
+            ps.setDouble(3, r.getValue());
+            ps.setString(4, r.getUnit());
+            ps.setTimestamp(5, Timestamp.from(r.getCollectedAt()));
+            ps.setObject(6, r.getPatientId());
+            ps.setTimestamp(7, Timestamp.from(r.getCollectedAt()));
+            ps.setObject(8, r.getId());
+        });
+    }
+
+    /** Each result replaces the latest row for its test only if it was collected later. */
+    public void advanceLatest(List<LabResult> results) {
+        jdbc.batchUpdate(ADVANCE_LATEST, results, results.size(), (ps, r) -> {
+            ps.setObject(1, r.getPatientId());
+            ps.setString(2, r.getTestName());
+            ps.setObject(3, r.getId());
+            ps.setDouble(4, r.getValue());
+            ps.setString(5, r.getUnit());
+            ps.setString(6, r.getFlag().name());
+            ps.setString(7, r.getStatus().name());
+            ps.setTimestamp(8, Timestamp.from(r.getCollectedAt()));
+            ps.setTimestamp(9, r.getReportedAt() == null ? null : Timestamp.from(r.getReportedAt()));
+        });
+    }
+
+    /** Takes one result out of the pending count and updates its latest row if it still is the latest. */
+    public void recordVerified(LabResult result) {
+        jdbc.update("""
+                update lab_patient_summary
+                set pending_verification_count = pending_verification_count - 1,
+                    updated_at                 = now()
+                where patient_id = ?""", result.getPatientId());
+        jdbc.update("""
+                update lab_patient_latest_results
+                set status = 'VERIFIED'
+                where patient_id = ? and test_name = ? and result_id = ?""",
+                result.getPatientId(), result.getTestName(), result.getId());
+    }
+
+    /**
+     * Recomputes one patient's rows from {@code lab_results}. The summary row
+     * is locked first, so writers for this patient wait for the rebuild and
+     * the rebuild waits for writers already in flight.
+     */
+    public void rebuild(UUID patientId) {
+        jdbc.update("insert into lab_patient_summary (patient_id) values (?) on conflict do nothing", patientId);
+        jdbc.queryForList("select patient_id from lab_patient_summary where patient_id = ? for update",
+                UUID.class, patientId);
+        jdbc.update(REBUILD_COUNTS, patientId, patientId);
+        jdbc.update(REBUILD_LAST_CRITICAL, patientId, patientId);
+        jdbc.update("delete from lab_patient_latest_results where patient_id = ?", patientId);
+        jdbc.update(REBUILD_LATEST, patientId);
+    }
+
+    /**
+     * Recomputes every row from {@code lab_results}. Both tables are locked
+     * against writers for the rest of the transaction; readers keep seeing
+     * the previous contents until it commits.
+     *
+     * @return number of patients summarized
+     */
+    public int rebuildAll() {
+        jdbc.execute("lock table lab_patient_summary, lab_patient_latest_results in share row exclusive mode");
+        jdbc.update("delete from lab_patient_latest_results");
+        jdbc.update("delete from lab_patient_summary");
+        int patients = jdbc.update(REBUILD_ALL_COUNTS);
+        jdbc.update(REBUILD_ALL_LAST_CRITICAL);
+        jdbc.update(REBUILD_ALL_LATEST);
+        return patients;
+    }
+
+    private static PatientLabSummary summary(ResultSet rs, List<LatestResult> latest) throws SQLException {
+        Map<ResultFlag, Long> counts = new EnumMap<>(ResultFlag.class);
+        counts.put(ResultFlag.NORMAL, rs.getLong("normal_count"));
+        counts.put(ResultFlag.LOW, rs.getLong("low_count"));
+        counts.put(ResultFlag.HIGH, rs.getLong("high_count"));
+        counts.put(ResultFlag.CRITICAL, rs.getLong("critical_count"));
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+        UUID lastCriticalId = rs.getObject("last_critical_result_id", UUID.class);
+        LastCritical lastCritical = lastCriticalId == null ? null : new LastCritical(
+                lastCriticalId,
+                rs.getString("last_critical_test_name"),
+                rs.getDouble("last_critical_value"),
+                rs.getString("last_critical_unit"),
+                instant(rs, "last_critical_collected_at"));
+
+        return new PatientLabSummary(
+                rs.getObject("patient_id", UUID.class),
+                total,
+                counts,
+                rs.getLong("pending_verification_count"),
+                lastCritical,
+                latest,
+                instant(rs, "updated_at"));
+    }
+
+    private static LatestResult latestResult(ResultSet rs, int row) throws SQLException {
+        return new LatestResult(
+                rs.getString("test_name"),
+                rs.getObject("result_id", UUID.class),
+                rs.getDouble("value"),
+                rs.getString("unit"),
+                ResultFlag.valueOf(rs.getString("flag")),
+                ResultStatus.valueOf(rs.getString("status")),
+                instant(rs, "collected_at"),
+                instant(rs, "reported_at"));
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+}
@@ -0,0 +1,20 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.ResultFlag;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-item outcome of a bulk result submission. Indexes refer to the position
+ * of the result in the submitted array so analyzers can resend only the rejects.
+ */
+public record BatchSubmissionResult(
+        int submitted,
+        List<Accepted> accepted,
+        List<Rejected> rejected) {
+
+    public record Accepted(int index, UUID id, ResultFlag flag, boolean critical) {}
+
+    public record Rejected(int index, List<String> errors) {}
+}
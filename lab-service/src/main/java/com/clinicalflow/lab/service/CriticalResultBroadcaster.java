@@ -0,0 +1,112 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.repository.LabResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Pushes newly reported critical results to dashboards over SSE.
+ *
+ * One poller per replica reads the worklist index every few seconds and fans
+ * the new rows out to every subscriber, so database load does not grow with
+ * the number of open dashboards. Each poll re-reads a short overlap before the
+ * high-water mark and skips ids it already sent, which catches results whose
+ * transaction committed after a later-reported one.
+ */
+@Component
+public class CriticalResultBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(CriticalResultBroadcaster.class);
+
+    /** Lowest id in Postgres's byte-wise uuid order, which sorts the bits unsigned. */
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final LabResultRepository repository;
+    private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+    private final Duration emitterTimeout;
+    private final Duration overlap;
+    private final int pageSize;
+
+    /** Only touched from the scheduler thread. */
+    private Instant highWater;
+    private final Map<UUID, Instant> recentlySent = new HashMap<>();
+
+    public CriticalResultBroadcaster(LabResultRepository repository,
+                                     @Value("${app.lab.critical-worklist.emitter-timeout:30m}") Duration emitterTimeout,
+                                     @Value("${app.lab.critical-worklist.push-overlap:10s}") Duration overlap,
+                                     @Value("${app.lab.critical-worklist.max-page-size:200}") int pageSize) {
+        this.repository = repository;
+        this.emitterTimeout = emitterTimeout;
+        this.overlap = overlap;
+        this.pageSize = pageSize;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(ex -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.lab.critical-worklist.push-interval-ms:2000}")
+    public void poll() {
+        if (emitters.isEmpty()) {
+            highWater = null;
+            recentlySent.clear();
+            return;
+        }
+        if (highWater == null) highWater = Instant.now();
+
+        Instant since = highWater.minus(overlap);
+        Limit limit = Limit.of(pageSize);
+        List<LabResult> page = repository.findOpenCriticalPageAfter(
+                LabResultService.OPEN_STATUSES, since, since, MIN_UUID, limit);
+        while (!page.isEmpty()) {
+            for (LabResult result : page) {
+                if (recentlySent.putIfAbsent(result.getId(), result.getReportedAt()) == null) {
+                    broadcast(result);
+                }
+                if (result.getReportedAt().isAfter(highWater)) highWater = result.getReportedAt();
+            }
+            if (page.size() < pageSize) break;
+            LabResult last = page.get(page.size() - 1);
+            page = repository.findOpenCriticalPageAfter(
+                    LabResultService.OPEN_STATUSES, since, last.getReportedAt(), last.getId(), limit);
+        }
+
+        Instant horizon = highWater.minus(overlap);
+        recentlySent.values().removeIf(reportedAt -> reportedAt.isBefore(horizon));
+    }
+
+    private void broadcast(LabResult result) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(result.getId().toString())
+                        .name("critical-result")
+                        .data(result));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping critical worklist subscriber: {}", e.getMessage());
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.LabResult;
+
+import java.util.List;
+
+/**
+ * One page of the critical worklist, oldest first. {@code nextCursor} is set
+ * even on the last page (it marks the newest result seen), so a dashboard can
+ * keep polling with it and only receive results reported since then.
+ */
+public record CriticalWorklistPage(List<LabResult> items, String nextCursor, boolean hasMore) {}
@@ -0,0 +1,199 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.repository.LabResultPartitionRepository;
+import com.clinicalflow.lab.repository.LabResultPartitionRepository.ArchivedPartition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of {@code lab_results}. It runs at startup
+ * and then daily:
+ * <ul>
+ *   <li>It keeps the current month and the next {@code months-ahead} months
+ *       attached, so new results never land in the default partition.</li>
+ *   <li>It detaches months that ended more than {@code retention-months} ago
+ *       into {@code archive-schema}. The rows stay queryable there, but the
+ *       service's queries, exports and trends no longer see them. The
+ *       default of 0 keeps every month attached.</li>
+ *   <li>When {@code archive-tablespace} is set, it moves archived months onto
+ *       that tablespace, which is typically cheaper, slower storage.</li>
+ * </ul>
+ * Each change runs in its own short transaction that holds an advisory lock.
+ * Only one instance does the work, and a step that cannot get its table lock
+ * within {@code lock-timeout} is retried on the next run.
+ */
+@Service
+public class LabResultPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabResultPartitionService.class);
+
+    private static final long MAINTENANCE_LOCK_KEY = 0x4C41425041525453L;
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final LabResultPartitionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+    private final String archiveTablespace;
+    private final Duration lockTimeout;
+
+    private final Counter created;
+    private final Counter archived;
+    private final Counter failures;
+    private final AtomicLong attachedCount = new AtomicLong();
+    private final AtomicLong archivedCount = new AtomicLong();
+    private final AtomicLong defaultRows = new AtomicLong();
+
+    public LabResultPartitionService(LabResultPartitionRepository repository,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.lab.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${app.lab.partitions.retention-months:0}") int retentionMonths,
+                                     @Value("${app.lab.partitions.archive-schema:lab_archive}") String archiveSchema,
+                                     @Value("${app.lab.partitions.archive-tablespace:}") String archiveTablespace,
+                                     @Value("${app.lab.partitions.lock-timeout:2s}") Duration lockTimeout) {
+        if (!IDENTIFIER.matcher(archiveSchema).matches()) {
+            throw new IllegalArgumentException("app.lab.partitions.archive-schema is not a plain identifier: " + archiveSchema);
+        }
+        if (!archiveTablespace.isEmpty() && !IDENTIFIER.matcher(archiveTablespace).matches()) {
+            throw new IllegalArgumentException("app.lab.partitions.archive-tablespace is not a plain identifier: " + archiveTablespace);
+        }
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+        this.archiveTablespace = archiveTablespace;
+        this.lockTimeout = lockTimeout;
+
+        this.created = Counter.builder("lab.partitions.created")
+                .description("Monthly lab_results partitions created ahead of time")
+                .register(meterRegistry);
+        this.archived = Counter.builder("lab.partitions.archived")
+                .description("Monthly lab_results partitions detached into the archive schema")
+                .register(meterRegistry);
+        this.failures = Counter.builder("lab.partitions.failures")
+                .description("Partition maintenance steps that failed and will be retried on the next run")
+                .register(meterRegistry);
+        Gauge.builder("lab.partitions", attachedCount, AtomicLong::get)
+                .description("Monthly lab_results partitions")
+                .tag("state", "attached")
+                .register(meterRegistry);
+        Gauge.builder("lab.partitions", archivedCount, AtomicLong::get)
+                .description("Monthly lab_results partitions")
+                .tag("state", "archived")
+                .register(meterRegistry);
+        Gauge.builder("lab.partitions.default.rows", defaultRows, AtomicLong::get)
+                .description("Rows in lab_results_default, outside every monthly partition")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.lab.partitions.maintenance-cron:0 15 1 * * *}", zone = "UTC")
+    public void maintain() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        createAhead(current);
+        if (retentionMonths > 0) {
+            archiveBefore(YearMonth.from(ZonedDateTime.now(ZoneOffset.UTC).minusMonths(retentionMonths)));
+        }
+        if (!archiveTablespace.isEmpty()) moveArchivedToTablespace();
+        refreshGauges();
+    }
+
+    /** One transaction per month, so a month that cannot be attached does not hold back the others. */
+    private void createAhead(YearMonth current) {
+        List<YearMonth> attached = repository.findAttachedMonths();
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (attached.contains(month)) continue;
+            YearMonth target = month;
+            Integer moved = step("create " + target, () -> {
+                if (repository.findAttachedMonths().contains(target)) return null;
+                return repository.createPartition(target);
+            });
+            if (moved == null) continue;
+            created.increment();
+            if (moved > 0) {
+                log.info("Created lab_results partition {} with {} rows moved from lab_results_default", target, moved);
+            } else {
+                log.info("Created lab_results partition {}", target);
+            }
+        }
+    }
+
+    /** One transaction per month, so a lock timeout on one month does not undo the others. */
+    private void archiveBefore(YearMonth cutoff) {
+        List<YearMonth> expired = repository.findAttachedMonths().stream().filter(m -> m.isBefore(cutoff)).toList();
+        for (YearMonth month : expired) {
+            Boolean detached = step("archive " + month, () -> {
+                if (!repository.findAttachedMonths().contains(month)) return false;
+                repository.detachToArchive(month, archiveSchema);
+                return true;
+            });
+            if (Boolean.TRUE.equals(detached)) {
+                archived.increment();
+                log.info("Archived lab_results partition {} into schema {}", month, archiveSchema);
+            }
+        }
+    }
+
+    private void moveArchivedToTablespace() {
+        for (ArchivedPartition partition : repository.findArchivedPartitions(archiveSchema)) {
+            if (partition.tablespace().equals(archiveTablespace)) continue;
+            Boolean moved = step("move " + partition.month(), () -> {
+                repository.moveToTablespace(partition.month(), archiveSchema, archiveTablespace);
+                return true;
+            });
+            if (Boolean.TRUE.equals(moved)) {
+                log.info("Moved archived lab_results partition {} to tablespace {}", partition.month(), archiveTablespace);
+            }
+        }
+    }
+
+    private void refreshGauges() {
+        try {
+            attachedCount.set(repository.findAttachedMonths().size());
+            archivedCount.set(repository.findArchivedPartitions(archiveSchema).size());
+            defaultRows.set(repository.countDefaultRows());
+        } catch (DataAccessException e) {
+            log.warn("Could not read lab_results partition statistics", e);
+        }
+    }
+
+    /**
+     * Runs {@code work} in a transaction that holds the maintenance lock.
+     * Returns null when another instance holds the lock or the step fails.
+     */
+    private <T> T step(String description, Supplier<T> work) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (!repository.tryLock(MAINTENANCE_LOCK_KEY)) return null;
+                repository.setLockTimeout(lockTimeout);
+                return work.get();
+            });
+        } catch (DataAccessException e) {
+            failures.increment();
+            log.warn("Partition maintenance step '{}' failed; retrying on the next run", description, e);
+            return null;
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package com.clinicalflow.lab.service;
 
 import com.clinicalflow.lab.event.LabResultEvent;
-import com.clinicalflow.lab.event.LabResultEventPublisher;
+import com.clinicalflow.lab.event.LabResultOutbox;
 import com.clinicalflow.lab.model.LabResult;
-import com.clinicalflow.lab.model.ResultFlag;
 import com.clinicalflow.lab.model.ResultStatus;
 import com.clinicalflow.lab.repository.LabResultRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -20,68 +31,224 @@ public class LabResultService {
 
     private static final Logger log = LoggerFactory.getLogger(LabResultService.class);
 
-    private final LabResultRepository repository;
-    private final LabResultEventPublisher eventPublisher;
+    /** Critical results still waiting for verification. */
+    static final Set<ResultStatus> OPEN_STATUSES = EnumSet.of(ResultStatus.PENDING, ResultStatus.REPORTED);
 
-    public LabResultService(LabResultRepository repository, LabResultEventPublisher eventPublisher) {
+    private final LabResultRepository repository;
+    private final LabResultOutbox outbox;
+    private final LabTrendService trendService;
+    private final PatientLabSummaryService summaries;
+    private final ReferenceRangeCatalog referenceRanges;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final Duration worklistWindow;
+    private final int maxWorklistPageSize;
+    private final Timer submitWrite;
+
+    public LabResultService(LabResultRepository repository,
+                            LabResultOutbox outbox,
+                            LabTrendService trendService,
+                            PatientLabSummaryService summaries,
+                            ReferenceRangeCatalog referenceRanges,
+                            Validator validator,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.lab.batch.max-size:5000}") int maxBatchSize,
+                            @Value("${app.lab.critical-worklist.default-window:24h}") Duration worklistWindow,
+                            @Value("${app.lab.critical-worklist.max-page-size:200}") int maxWorklistPageSize) {
         this.repository = repository;
-        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.trendService = trendService;
+        this.summaries = summaries;
+        this.referenceRanges = referenceRanges;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.worklistWindow = worklistWindow;
+        this.maxWorklistPageSize = maxWorklistPageSize;
+        this.submitWrite = Timer.builder("clinicalflow.write")
+                .description("Time to write a change and its outbox event, from the start of the transaction to its commit")
+                .tag("operation", "lab.submit")
+                .register(meterRegistry);
     }
 
-    public List<LabResult> findByPatient(UUID patientId) {
-        return repository.findByPatientIdOrderByCollectedAtDesc(patientId);
+    /**
+     * The patient's results, newest first. With {@code since}, only results
+     * collected from then on are read, and the months before it are skipped
+     * entirely; without it the whole history is read.
+     */
+    @Transactional(readOnly = true)
+    public List<LabResult> findByPatient(UUID patientId, Instant since) {
+        if (since == null) return repository.findByPatientIdOrderByCollectedAtDesc(patientId);
+        return repository.findByPatientIdAndCollectedAtGreaterThanEqualOrderByCollectedAtDesc(patientId, since);
     }
 
-    public List<LabResult> findByPatientAndTest(UUID patientId, String testName) {
-        return repository.findByPatientIdAndTestNameOrderByCollectedAtDesc(patientId, testName);
+    @Transactional(readOnly = true)
+    public List<LabResult> findByPatientAndTest(UUID patientId, String testName, Instant since) {
+        if (since == null) return repository.findByPatientIdAndTestNameOrderByCollectedAtDesc(patientId, testName);
+        return repository.findByPatientIdAndTestNameAndCollectedAtGreaterThanEqualOrderByCollectedAtDesc(
+                patientId, testName, since);
     }
 
-    public List<LabResult> findCriticalResults() {
-        return repository.findByFlag(ResultFlag.CRITICAL);
+    /**
+     * Critical results that have not been verified yet, reported since
+     * {@code since} (default: the configured window), oldest first.
+     */
+    @Transactional(readOnly = true)
+    public CriticalWorklistPage findCriticalResults(ResultStatus status, Instant since, String cursor, int limit) {
+        Set<ResultStatus> statuses = status == null ? OPEN_STATUSES : EnumSet.of(status);
+        Instant from = since != null ? since : Instant.now().minus(worklistWindow);
+        Limit fetch = Limit.of(Math.clamp(limit, 1, maxWorklistPageSize) + 1);
+
+        List<LabResult> rows;
+        if (cursor == null) {
+            rows = repository.findOpenCriticalFirstPage(statuses, from, fetch);
+        } else {
+            WorklistCursor after = WorklistCursor.decode(cursor);
+            rows = repository.findOpenCriticalPageAfter(statuses, from, after.reportedAt(), after.id(), fetch);
+        }
+
+        int pageSize = fetch.max() - 1;
+        boolean hasMore = rows.size() > pageSize;
+        List<LabResult> items = hasMore ? rows.subList(0, pageSize) : rows;
+        if (items.isEmpty()) return new CriticalWorklistPage(items, cursor, false);
+        LabResult last = items.get(items.size() - 1);
+        return new CriticalWorklistPage(items, new WorklistCursor(last.getReportedAt(), last.getId()).encode(), hasMore);
     }
 
+    @Transactional(readOnly = true)
     public LabResult findById(UUID id) {
         return repository.findById(id)
                 .orElseThrow(() -> new LabResultNotFoundException("Lab result not found: " + id));
     }
 
+    /**
+     * The write timer covers the result, its summary update and its outbox row,
+     * and is recorded once the transaction commits, so it includes the flush
+     * and commit that Hibernate defers to the end.
+     */
     @Transactional
     public LabResult submitResult(LabResult result) {
-        result.setStatus(ResultStatus.REPORTED);
-        result.setReportedAt(Instant.now());
-        result.evaluateFlag();
+        Timer.Sample write = Timer.start();
+        prepareForReport(result, Instant.now(), referenceRanges.current());
 
         LabResult saved = repository.save(result);
+        summaries.recordSubmitted(List.of(saved));
+        trendService.invalidateAfterCommit(saved.getPatientId(), saved.getTestName());
+        outbox.enqueue(toEvent(saved));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.stop(submitWrite);
+            }
+        });
+
+        return saved;
+    }
+
+    /**
+     * Bulk ingestion for analyzer bursts. Invalid items are rejected individually
+     * instead of failing the whole batch; valid items are persisted in one
+     * transaction (JDBC-batched inserts) together with their outbox events,
+     * which the relay later sends in a single producer flush.
+     */
+    @Transactional
+    public BatchSubmissionResult submitBatch(List<LabResult> results) {
+        if (results.size() > maxBatchSize) {
+            throw new BatchTooLargeException("Batch of " + results.size()
+                    + " results exceeds the maximum of " + maxBatchSize);
+        }
+
+        Instant reportedAt = Instant.now();
+        ReferenceRanges ranges = referenceRanges.current();
+        List<LabResult> valid = new ArrayList<>(results.size());
+        List<Integer> validIndexes = new ArrayList<>(results.size());
+        List<BatchSubmissionResult.Rejected> rejected = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            LabResult result = results.get(i);
+            if (result == null) {
+                rejected.add(new BatchSubmissionResult.Rejected(i, List.of("Lab result is required")));
+                continue;
+            }
+            Set<ConstraintViolation<LabResult>> violations = validator.validate(result);
+            if (!violations.isEmpty()) {
+                rejected.add(new BatchSubmissionResult.Rejected(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .toList()));
+                continue;
+            }
+            prepareForReport(result, reportedAt, ranges);
+            valid.add(result);
+            validIndexes.add(i);
+        }
+
+        List<LabResult> saved = repository.saveAll(valid);
+        summaries.recordSubmitted(saved);
+
+        List<LabResultEvent> events = new ArrayList<>(saved.size());
+        List<BatchSubmissionResult.Accepted> accepted = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            LabResult result = saved.get(i);
+            trendService.invalidateAfterCommit(result.getPatientId(), result.getTestName());
+            events.add(toEvent(result));
+            accepted.add(new BatchSubmissionResult.Accepted(
+                    validIndexes.get(i), result.getId(), result.getFlag(), result.isCritical()));
+        }
+        outbox.enqueueAll(events);
+
+        log.info("Lab result batch processed: {} accepted, {} rejected", accepted.size(), rejected.size());
+        return new BatchSubmissionResult(results.size(), accepted, rejected);
+    }
+
+    /**
+     * The status changes in a conditional update, so only the call that
+     * actually verifies the result takes it out of the summary's pending count.
+     */
+    @Transactional
+    public LabResult verifyResult(UUID id) {
+        LabResult result = findById(id);
+        if (repository.markVerified(id) > 0) {
+            summaries.recordVerified(result);
+        }
+        result.setStatus(ResultStatus.VERIFIED);
+        return result;
+    }
 
-        String eventType = saved.isCritical() ? "CRITICAL_RESULT" : "RESULT_REPORTED";
+    private void prepareForReport(LabResult result, Instant reportedAt, ReferenceRanges ranges) {
+        result.setStatus(ResultStatus.REPORTED);
+        result.setReportedAt(reportedAt);
+        ranges.apply(result);
 
-        if (saved.isCritical()) {
+        if (result.isCritical()) {
             log.warn("CRITICAL VALUE DETECTED: {} = {} {} for patient {}",
-                    saved.getTestName(), saved.getValue(), saved.getUnit(), saved.getPatientId());
+                    result.getTestName(), result.getValue(), result.getUnit(), result.getPatientId());
         }
+    }
 
-        eventPublisher.publish(LabResultEvent.of(
-                eventType,
+    private LabResultEvent toEvent(LabResult saved) {
+        return LabResultEvent.of(
+                saved.isCritical() ? "CRITICAL_RESULT" : "RESULT_REPORTED",
                 saved.getId(),
                 saved.getPatientId(),
                 saved.getTestName(),
                 saved.getValue(),
                 saved.getUnit(),
                 saved.getFlag().name(),
-                saved.isCritical()
-        ));
+                saved.isCritical(),
+                saved.getCollectedAt(),
+                saved.getReportedAt()
+        );
+    }
 
-        return saved;
+    public static class LabResultNotFoundException extends RuntimeException {
+        public LabResultNotFoundException(String message) { super(message); }
     }
 
-    @Transactional
-    public LabResult verifyResult(UUID id) {
-        LabResult result = findById(id);
-        result.setStatus(ResultStatus.VERIFIED);
-        return repository.save(result);
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException(String message) { super(message); }
     }
 
-    public static class LabResultNotFoundException extends RuntimeException {
-        public LabResultNotFoundException(String message) { super(message); }
+    public static class BatchTooLargeException extends RuntimeException {
+        public BatchTooLargeException(String message) { super(message); }
     }
 }
@@ -0,0 +1,24 @@
+package com.clinicalflow.lab.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A windowed, possibly downsampled view of one patient's results for one test.
+ * Points are returned as parallel arrays: {@code timestamps} in epoch millis and
+ * {@code values}. The aggregates always cover every raw point in the window,
+ * not just the returned points.
+ */
+public record LabTrend(
+        UUID patientId,
+        String testName,
+        String unit,
+        Instant from,
+        Instant to,
+        int count,
+        Double min,
+        Double max,
+        Double avg,
+        boolean downsampled,
+        long[] timestamps,
+        double[] values) {}
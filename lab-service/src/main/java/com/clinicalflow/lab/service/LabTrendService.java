@@ -0,0 +1,177 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.TrendSeries;
+import com.clinicalflow.lab.repository.LabResultRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Serves lab trends from compact per-patient, per-test {@link TrendSeries}.
+ * A series is built from a projection query on first use and dropped when a
+ * result for that patient and test is committed, so the next read rebuilds it.
+ * Peers drop it too when the result's event reaches them (see
+ * {@code LabTrendInvalidator}), and every series expires {@code expire-after-write}
+ * after it was built, which bounds staleness if events are delayed.
+ * Series are built from the primary even when a read replica is configured,
+ * since a rebuild that follows an invalidation must see the committed write.
+ */
+@Service
+public class LabTrendService {
+
+    private record SeriesKey(UUID patientId, String testName) {}
+
+    private record Points(long[] timestamps, double[] values) {}
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final LabResultRepository repository;
+    private final Cache<SeriesKey, TrendSeries> series;
+    private final int defaultMaxPoints;
+    private final int maxPointsLimit;
+
+    /**
+     * Bumped on every invalidation of a key in the stripe, so a load that raced
+     * with a write is not cached. Striped so that the steady stream of peer
+     * invalidations does not stop unrelated series from being cached.
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public LabTrendService(LabResultRepository repository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.lab.trends.max-cached-points:5000000}") long maxCachedPoints,
+                           @Value("${app.lab.trends.expire-after-write:10m}") Duration expireAfterWrite,
+                           @Value("${app.lab.trends.default-max-points:500}") int defaultMaxPoints,
+                           @Value("${app.lab.trends.max-points-limit:5000}") int maxPointsLimit) {
+        this.repository = repository;
+        this.defaultMaxPoints = defaultMaxPoints;
+        this.maxPointsLimit = maxPointsLimit;
+        this.series = Caffeine.newBuilder()
+                .maximumWeight(maxCachedPoints)
+                .weigher((SeriesKey key, TrendSeries value) -> Math.max(1, value.size()))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, series, "lab.trends");
+    }
+
+    public LabTrend trend(UUID patientId, String testName, Instant from, Instant to, Integer maxPoints) {
+        TrendSeries s = load(new SeriesKey(patientId, testName));
+        int lo = from == null ? 0 : s.lowerBound(from.toEpochMilli());
+        int hi = to == null ? s.size() : s.upperBound(to.toEpochMilli());
+        int n = Math.max(0, hi - lo);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (int i = lo; i < lo + n; i++) {
+            double v = s.valueAt(i);
+            if (v < min) min = v;
+            if (v > max) max = v;
+            sum += v;
+        }
+
+        int limit = Math.clamp(maxPoints == null ? defaultMaxPoints : maxPoints, 2, maxPointsLimit);
+        boolean downsampled = n > limit;
+        Points points = downsampled ? downsample(s, lo, n, limit / 2) : copy(s, lo, n);
+
+        return new LabTrend(patientId, testName, s.unit(), from, to, n,
+                n == 0 ? null : min,
+                n == 0 ? null : max,
+                n == 0 ? null : sum / n,
+                downsampled, points.timestamps(), points.values());
+    }
+
+    /**
+     * Drops the cached series once the current transaction commits, or
+     * immediately when there is none.
+     */
+    public void invalidateAfterCommit(UUID patientId, String testName) {
+        SeriesKey key = new SeriesKey(patientId, testName);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(key);
+            }
+        });
+    }
+
+    /** Drops the cached series now; used for results committed by other replicas. */
+    public void invalidate(UUID patientId, String testName) {
+        invalidate(new SeriesKey(patientId, testName));
+    }
+
+    private void invalidate(SeriesKey key) {
+        generations.incrementAndGet(stripe(key));
+        series.invalidate(key);
+    }
+
+    private TrendSeries load(SeriesKey key) {
+        TrendSeries cached = series.getIfPresent(key);
+        if (cached != null) return cached;
+        int stripe = stripe(key);
+        long observed = generations.get(stripe);
+        TrendSeries loaded = TrendSeries.of(repository.findTrendSamples(key.patientId(), key.testName()));
+        if (generations.get(stripe) == observed) series.put(key, loaded);
+        return loaded;
+    }
+
+    private static int stripe(SeriesKey key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Min/max downsampling: the window is split into equal-count buckets and
+     * each bucket keeps its lowest and highest point in time order. Unlike
+     * averaging, this never hides a critical spike from the chart.
+     */
+    private static Points downsample(TrendSeries s, int lo, int n, int buckets) {
+        long[] timestamps = new long[buckets * 2];
+        double[] values = new double[buckets * 2];
+        int out = 0;
+        for (int b = 0; b < buckets; b++) {
+            int start = lo + (int) ((long) b * n / buckets);
+            int end = lo + (int) ((long) (b + 1) * n / buckets);
+            int iMin = start;
+            int iMax = start;
+            for (int i = start + 1; i < end; i++) {
+                if (s.valueAt(i) < s.valueAt(iMin)) iMin = i;
+                if (s.valueAt(i) > s.valueAt(iMax)) iMax = i;
+            }
+            int first = Math.min(iMin, iMax);
+            int second = Math.max(iMin, iMax);
+            timestamps[out] = s.timestampAt(first);
+            values[out++] = s.valueAt(first);
+            if (second != first) {
+                timestamps[out] = s.timestampAt(second);
+                values[out++] = s.valueAt(second);
+            }
+        }
+        return new Points(Arrays.copyOf(timestamps, out), Arrays.copyOf(values, out));
+    }
+
+    private static Points copy(TrendSeries s, int lo, int n) {
+        long[] timestamps = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = s.timestampAt(lo + i);
+            values[i] = s.valueAt(lo + i);
+        }
+        return new Points(timestamps, values);
+    }
+}
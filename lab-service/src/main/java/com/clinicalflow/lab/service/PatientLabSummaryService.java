@@ -0,0 +1,137 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.PatientLabSummary;
+import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.ResultStatus;
+import com.clinicalflow.lab.repository.PatientLabSummaryRepository;
+import com.clinicalflow.lab.repository.PatientLabSummaryRepository.CountDelta;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps the per-patient lab summary in step with {@code lab_results}. The
+ * write methods join the caller's transaction, so a summary change commits or
+ * rolls back with the results it describes.
+ */
+@Service
+public class PatientLabSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientLabSummaryService.class);
+
+    /**
+     * Ids are compared as unsigned bytes, the way Postgres orders uuids, so
+     * ties on collectedAt pick the same winner here as in the tables.
+     */
+    private static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Comparator<LabResult> RECENCY = Comparator
+            .comparing(LabResult::getCollectedAt)
+            .thenComparing(LabResult::getId, UUID_ORDER);
+
+    private record TestKey(UUID patientId, String testName) {}
+
+    private static final Comparator<TestKey> TEST_ORDER = Comparator
+            .comparing(TestKey::patientId, UUID_ORDER)
+            .thenComparing(TestKey::testName);
+
+    private final PatientLabSummaryRepository repository;
+    private final Timer rebuildTimer;
+
+    public PatientLabSummaryService(PatientLabSummaryRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.rebuildTimer = Timer.builder("lab.summary.rebuild")
+                .description("Time spent recomputing patient lab summaries from lab_results")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Summary for one patient: a primary-key read of the summary row and one
+     * row per test from the latest-result table.
+     */
+    @Transactional(readOnly = true)
+    public PatientLabSummary summary(UUID patientId) {
+        return repository.findByPatientId(patientId)
+                .orElseGet(() -> new PatientLabSummary(patientId, 0, emptyCounts(), 0, null, List.of(), null));
+    }
+
+    /**
+     * Folds newly saved results into the summary. A batch collapses to one
+     * counter upsert per patient and one latest-row upsert per patient and
+     * test, applied in patient order so concurrent batches lock rows in the
+     * same sequence.
+     */
+    @Transactional
+    public void recordSubmitted(List<LabResult> saved) {
+        if (saved.isEmpty()) return;
+
+        Map<UUID, long[]> counts = new TreeMap<>(UUID_ORDER);
+        Map<UUID, LabResult> lastCritical = new LinkedHashMap<>();
+        Map<TestKey, LabResult> latest = new TreeMap<>(TEST_ORDER);
+        for (LabResult result : saved) {
+            long[] c = counts.computeIfAbsent(result.getPatientId(), id -> new long[ResultFlag.values().length + 1]);
+            c[result.getFlag().ordinal()]++;
+            if (result.getStatus() != ResultStatus.VERIFIED) c[c.length - 1]++;
+
+            if (result.isCritical()) lastCritical.merge(result.getPatientId(), result, PatientLabSummaryService::later);
+            latest.merge(new TestKey(result.getPatientId(), result.getTestName()), result, PatientLabSummaryService::later);
+        }
+
+        List<CountDelta> deltas = new ArrayList<>(counts.size());
+        counts.forEach((patientId, c) -> deltas.add(new CountDelta(patientId,
+                c[ResultFlag.NORMAL.ordinal()], c[ResultFlag.LOW.ordinal()],
+                c[ResultFlag.HIGH.ordinal()], c[ResultFlag.CRITICAL.ordinal()], c[c.length - 1])));
+        repository.addCounts(deltas);
+
+        if (!lastCritical.isEmpty()) {
+            List<LabResult> criticals = new ArrayList<>(lastCritical.values());
+            criticals.sort(Comparator.comparing(LabResult::getPatientId, UUID_ORDER));
+            repository.advanceLastCritical(criticals);
+        }
+        repository.advanceLatest(new ArrayList<>(latest.values()));
+    }
+
+    /** Call only when the result actually moved to VERIFIED, so repeated verifies count once. */
+    @Transactional
+    public void recordVerified(LabResult result) {
+        repository.recordVerified(result);
+    }
+
+    @Transactional
+    public PatientLabSummary rebuild(UUID patientId) {
+        rebuildTimer.record(() -> repository.rebuild(patientId));
+        return summary(patientId);
+    }
+
+    @Transactional
+    public int rebuildAll() {
+        int patients = rebuildTimer.record(repository::rebuildAll);
+        log.info("Rebuilt lab summaries for {} patients", patients);
+        return patients;
+    }
+
+    private static LabResult later(LabResult a, LabResult b) {
+        return RECENCY.compare(a, b) >= 0 ? a : b;
+    }
+
+    private static Map<ResultFlag, Long> emptyCounts() {
+        Map<ResultFlag, Long> counts = new EnumMap<>(ResultFlag.class);
+        for (ResultFlag flag : ResultFlag.values()) counts.put(flag, 0L);
+        return counts;
+    }
+}
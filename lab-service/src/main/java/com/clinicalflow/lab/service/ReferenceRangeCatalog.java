@@ -0,0 +1,89 @@
+package com.clinicalflow.lab.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Holds the current {@link ReferenceRanges}, loaded from
+ * {@code app.lab.reference-ranges.location}. The file is re-read when its
+ * modification time changes. A new snapshot replaces the old one in a single
+ * volatile write, so evaluation never locks and a batch always sees one
+ * consistent version. A file that fails to parse or validate is rejected, and
+ * the previous snapshot stays in place.
+ */
+@Component
+public class ReferenceRangeCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceRangeCatalog.class);
+
+    private final Resource location;
+    private final ObjectMapper objectMapper;
+
+    private volatile ReferenceRanges current = ReferenceRanges.EMPTY;
+    private long loadedModified = -1;
+
+    public ReferenceRangeCatalog(@Value("${app.lab.reference-ranges.location:classpath:reference-ranges.json}") Resource location,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        this.location = location;
+        this.objectMapper = objectMapper;
+        if (location.exists()) {
+            current = load();
+            loadedModified = lastModified();
+            log.info("Loaded reference ranges for {} tests from {}", current.size(), location);
+        } else {
+            log.warn("Reference range catalog {} not found; flags use the ranges sent with each result", location);
+        }
+        Gauge.builder("lab.reference-ranges.tests", this, c -> c.current.size())
+                .description("Tests with a catalog reference range")
+                .register(meterRegistry);
+    }
+
+    public ReferenceRanges current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.lab.reference-ranges.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (!location.exists()) return;
+        long modified = lastModified();
+        if (modified == loadedModified) return;
+        try {
+            ReferenceRanges reloaded = load();
+            current = reloaded;
+            log.info("Reloaded reference ranges for {} tests from {}", reloaded.size(), location);
+        } catch (RuntimeException e) {
+            log.error("Rejected reference range catalog {}; keeping the previous version", location, e);
+        }
+        loadedModified = modified;
+    }
+
+    private ReferenceRanges load() {
+        try (InputStream in = location.getInputStream()) {
+            List<ReferenceRanges.TestDefinition> tests = objectMapper.readValue(in, new TypeReference<>() {});
+            return ReferenceRanges.of(tests);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read reference range catalog " + location, e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return location.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
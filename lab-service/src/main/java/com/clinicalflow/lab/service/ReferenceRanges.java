@@ -0,0 +1,206 @@
+package com.clinicalflow.lab.service;
+
+import com.clinicalflow.lab.model.LabResult;
+import com.clinicalflow.lab.model.ResultFlag;
+import com.clinicalflow.lab.model.Sex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable reference-range lookup, keyed by test name (case-insensitive).
+ *
+ * Each test holds its demographic bands in primitive arrays, sorted most
+ * specific first, so evaluating a result is a map lookup plus a short scan
+ * with no allocation. Results for tests that are not in the catalog, or that
+ * were reported in a different unit, fall back to the range sent with the
+ * result.
+ */
+public final class ReferenceRanges {
+
+    static final ReferenceRanges EMPTY = new ReferenceRanges(List.of());
+
+    private static final byte ANY_SEX = 0;
+    private static final int NO_MAX_AGE = Integer.MAX_VALUE;
+
+    private final Map<String, TestBands> byTestName;
+
+    private ReferenceRanges(List<TestDefinition> tests) {
+        TreeMap<String, TestBands> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (TestDefinition test : tests) {
+            if (map.put(test.testName(), new TestBands(test)) != null) {
+                throw new IllegalArgumentException("Duplicate reference range entry for " + test.testName());
+            }
+        }
+        this.byTestName = Collections.unmodifiableMap(map);
+    }
+
+    public static ReferenceRanges of(List<TestDefinition> tests) {
+        return new ReferenceRanges(tests);
+    }
+
+    public int size() {
+        return byTestName.size();
+    }
+
+    /**
+     * Sets the flag of {@code result}. When a catalog band applies, its normal
+     * range is also stored on the result, so the result records the range
+     * that produced its flag.
+     */
+    public void apply(LabResult result) {
+        TestBands bands = byTestName.get(result.getTestName());
+        if (bands != null && bands.unitMatches(result.getUnit())) {
+            int band = bands.find(result.getPatientSex(), result.getPatientAgeYears());
+            if (band >= 0) {
+                result.setReferenceMin(bands.boxedLow[band]);
+                result.setReferenceMax(bands.boxedHigh[band]);
+                result.setFlag(bands.flag(band, result.getValue()));
+                return;
+            }
+        }
+        result.setFlag(fallbackFlag(result.getValue(), result.getReferenceMin(), result.getReferenceMax()));
+    }
+
+    /**
+     * Flag from a range supplied with the result. Without panic values the
+     * critical thresholds are taken as half the range beyond either limit.
+     */
+    static ResultFlag fallbackFlag(double value, Double referenceMin, Double referenceMax) {
+        if (referenceMin == null || referenceMax == null) return ResultFlag.NORMAL;
+
+        double range = referenceMax - referenceMin;
+        double criticalLowThreshold = referenceMin - (range * 0.5);
+        double criticalHighThreshold = referenceMax + (range * 0.5);
+
+        if (value < criticalLowThreshold || value > criticalHighThreshold) return ResultFlag.CRITICAL;
+        if (value < referenceMin) return ResultFlag.LOW;
+        if (value > referenceMax) return ResultFlag.HIGH;
+        return ResultFlag.NORMAL;
+    }
+
+    /** One catalog entry as read from the catalog file. */
+    public record TestDefinition(String testName, String unit, List<BandDefinition> bands) {}
+
+    /**
+     * A normal range for one demographic band. {@code sex}, both ages and both
+     * critical limits are optional; {@code maxAgeYears} is exclusive, and a value
+     * at or beyond a critical limit is critical. A missing critical limit falls
+     * back to the rule of {@link #fallbackFlag}: half the range beyond the limit.
+     */
+    public record BandDefinition(Sex sex, Integer minAgeYears, Integer maxAgeYears,
+                                 Double low, Double high, Double criticalLow, Double criticalHigh) {}
+
+    private static final class TestBands {
+
+        private final String unit;
+        private final byte[] sex;
+        private final int[] minAge;
+        private final int[] maxAge;
+        private final double[] low;
+        private final double[] high;
+        private final double[] criticalLow;
+        private final double[] criticalHigh;
+        private final Double[] boxedLow;
+        private final Double[] boxedHigh;
+
+        TestBands(TestDefinition test) {
+            if (test.testName() == null || test.testName().isBlank()) {
+                throw new IllegalArgumentException("Reference range entry without a test name");
+            }
+            if (test.bands() == null || test.bands().isEmpty()) {
+                throw new IllegalArgumentException("No bands for " + test.testName());
+            }
+            List<BandDefinition> sorted = new ArrayList<>(test.bands());
+            sorted.sort(Comparator
+                    .comparing((BandDefinition b) -> b.sex() == null)
+                    .thenComparingLong(TestBands::ageSpan));
+
+            int n = sorted.size();
+            this.unit = test.unit();
+            this.sex = new byte[n];
+            this.minAge = new int[n];
+            this.maxAge = new int[n];
+            this.low = new double[n];
+            this.high = new double[n];
+            this.criticalLow = new double[n];
+            this.criticalHigh = new double[n];
+            this.boxedLow = new Double[n];
+            this.boxedHigh = new Double[n];
+            for (int i = 0; i < n; i++) {
+                BandDefinition b = sorted.get(i);
+                validate(test.testName(), b);
+                sex[i] = b.sex() == null ? ANY_SEX : (byte) (b.sex().ordinal() + 1);
+                minAge[i] = b.minAgeYears() == null ? 0 : b.minAgeYears();
+                maxAge[i] = b.maxAgeYears() == null ? NO_MAX_AGE : b.maxAgeYears();
+                low[i] = b.low();
+                high[i] = b.high();
+                // Derived limits are nudged outward so that, like fallbackFlag, a value
+                // exactly half a range beyond the limit is not yet critical.
+                double halfRange = (b.high() - b.low()) * 0.5;
+                criticalLow[i] = b.criticalLow() != null ? b.criticalLow() : Math.nextDown(b.low() - halfRange);
+                criticalHigh[i] = b.criticalHigh() != null ? b.criticalHigh() : Math.nextUp(b.high() + halfRange);
+                boxedLow[i] = b.low();
+                boxedHigh[i] = b.high();
+            }
+        }
+
+        boolean unitMatches(String resultUnit) {
+            return unit == null || unit.equalsIgnoreCase(resultUnit);
+        }
+
+        /**
+         * First band that matches. Bands that need a sex or an age are skipped
+         * when the result does not carry it.
+         */
+        int find(Sex patientSex, Integer patientAgeYears) {
+            byte s = patientSex == null ? ANY_SEX : (byte) (patientSex.ordinal() + 1);
+            for (int i = 0; i < sex.length; i++) {
+                if (sex[i] != ANY_SEX && sex[i] != s) continue;
+                boolean ageBounded = minAge[i] > 0 || maxAge[i] != NO_MAX_AGE;
+                if (ageBounded) {
+                    if (patientAgeYears == null) continue;
+                    int age = patientAgeYears;
+                    if (age < minAge[i] || age >= maxAge[i]) continue;
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        ResultFlag flag(int band, double value) {
+            if (value <= criticalLow[band] || value >= criticalHigh[band]) return ResultFlag.CRITICAL;
+            if (value < low[band]) return ResultFlag.LOW;
+            if (value > high[band]) return ResultFlag.HIGH;
+            return ResultFlag.NORMAL;
+        }
+
+        private static long ageSpan(BandDefinition b) {
+            long min = b.minAgeYears() == null ? 0 : b.minAgeYears();
+            long max = b.maxAgeYears() == null ? NO_MAX_AGE : b.maxAgeYears();
+            return max - min;
+        }
+
+        private static void validate(String testName, BandDefinition b) {
+            if (b.low() == null || b.high() == null) {
+                throw new IllegalArgumentException(testName + ": every band needs low and high");
+            }
+            if (b.low() > b.high()) {
+                throw new IllegalArgumentException(testName + ": low must not exceed high");
+            }
+            if (b.criticalLow() != null && b.criticalLow() > b.low()) {
+                throw new IllegalArgumentException(testName + ": criticalLow must not exceed low");
+            }
+            if (b.criticalHigh() != null && b.criticalHigh() < b.high()) {
+                throw new IllegalArgumentException(testName + ": criticalHigh must not be below high");
+            }
+            if (b.minAgeYears() != null && b.maxAgeYears() != null && b.minAgeYears() >= b.maxAgeYears()) {
+                throw new IllegalArgumentException(testName + ": minAgeYears must be below maxAgeYears");
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.clinicalflow.lab.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position over {@code (reportedAt, id)} in the critical worklist.
+ */
+public record WorklistCursor(Instant reportedAt, UUID id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putLong(reportedAt.getEpochSecond())
+                .putInt(reportedAt.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static WorklistCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new LabResultService.InvalidCursorException("Malformed cursor: " + cursor);
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new LabResultService.InvalidCursorException("Malformed cursor: " + cursor);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Instant reportedAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        return new WorklistCursor(reportedAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
@@ -0,0 +1,30 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update).
+-- Existing databases are baselined at this version and skip this script.
+
+create table if not exists lab_results (
+    id            uuid                        not null,
+    collected_at  timestamp(6) with time zone not null,
+    flag          varchar(255)                not null
+        check (flag in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    patient_id    uuid                        not null,
+    reference_max float(53),
+    reference_min float(53),
+    reported_at   timestamp(6) with time zone,
+    status        varchar(255)                not null
+        check (status in ('PENDING', 'REPORTED', 'VERIFIED')),
+    test_name     varchar(255)                not null,
+    unit          varchar(255)                not null,
+    value         float(53)                   not null,
+    primary key (id)
+);
+
+create sequence if not exists outbox_events_seq start with 1 increment by 50;
+
+create table if not exists outbox_events (
+    id            bigint                      not null,
+    aggregate_key varchar(255)                not null,
+    created_at    timestamp(6) with time zone not null,
+    event_type    varchar(255)                not null,
+    payload       text                        not null,
+    primary key (id)
+);
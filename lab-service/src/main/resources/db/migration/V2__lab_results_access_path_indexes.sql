@@ -0,0 +1,15 @@
+-- Composite indexes for the lab_results access paths.
+
+-- Chart open: findByPatientIdOrderByCollectedAtDesc
+create index if not exists idx_lab_results_patient_collected
+    on lab_results (patient_id, collected_at desc);
+
+-- Single-test history and trend loads: findByPatientIdAndTestNameOrderByCollectedAtDesc
+create index if not exists idx_lab_results_patient_test_collected
+    on lab_results (patient_id, test_name, collected_at desc);
+
+-- Critical-value worklist. Only open (unverified) critical results are indexed,
+-- which keeps this index a tiny fraction of the table.
+create index if not exists idx_lab_results_critical_open
+    on lab_results (reported_at, id)
+    where flag = 'CRITICAL' and status <> 'VERIFIED';
@@ -0,0 +1,8 @@
+-- Optional demographics supplied with a result, used to select age- and
+-- sex-specific bands from the reference-range catalog.
+
+alter table lab_results
+    add column patient_sex varchar(255)
+        check (patient_sex in ('MALE', 'FEMALE')),
+    add column patient_age_years integer
+        check (patient_age_years >= 0);
@@ -0,0 +1,68 @@
+-- Per-patient lab summary, maintained incrementally by the lab result writes
+-- so that opening a chart reads a handful of primary-key rows instead of the
+-- patient's full result history.
+
+create table lab_patient_summary (
+    patient_id                 uuid                        not null,
+    normal_count               bigint                      not null default 0,
+    low_count                  bigint                      not null default 0,
+    high_count                 bigint                      not null default 0,
+    critical_count             bigint                      not null default 0,
+    pending_verification_count bigint                      not null default 0,
+    last_critical_result_id    uuid,
+    last_critical_test_name    varchar(255),
+    last_critical_value        float(53),
+    last_critical_unit         varchar(255),
+    last_critical_collected_at timestamp(6) with time zone,
+    updated_at                 timestamp(6) with time zone not null default now(),
+    primary key (patient_id)
+);
+
+-- Latest result per test; the primary key doubles as the chart-open access path.
+create table lab_patient_latest_results (
+    patient_id   uuid                        not null,
+    test_name    varchar(255)                not null,
+    result_id    uuid                        not null,
+    value        float(53)                   not null,
+    unit         varchar(255)                not null,
+    flag         varchar(255)                not null
+        check (flag in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    status       varchar(255)                not null
+        check (status in ('PENDING', 'REPORTED', 'VERIFIED')),
+    collected_at timestamp(6) with time zone not null,
+    reported_at  timestamp(6) with time zone,
+    primary key (patient_id, test_name)
+);
+
+-- Backfill from existing results. Same statements as the full rebuild in
+-- PatientLabSummaryRepository.
+
+insert into lab_patient_summary (patient_id, normal_count, low_count, high_count, critical_count,
+                                 pending_verification_count)
+select patient_id,
+       count(*) filter (where flag = 'NORMAL'),
+       count(*) filter (where flag = 'LOW'),
+       count(*) filter (where flag = 'HIGH'),
+       count(*) filter (where flag = 'CRITICAL'),
+       count(*) filter (where status <> 'VERIFIED')
+from lab_results
+group by patient_id;
+
+update lab_patient_summary s
+set last_critical_result_id    = c.id,
+    last_critical_test_name    = c.test_name,
+    last_critical_value        = c.value,
+    last_critical_unit         = c.unit,
+    last_critical_collected_at = c.collected_at
+from (select distinct on (patient_id) patient_id, id, test_name, value, unit, collected_at
+      from lab_results
+      where flag = 'CRITICAL'
+      order by patient_id, collected_at desc, id desc) c
+where s.patient_id = c.patient_id;
+
+insert into lab_patient_latest_results (patient_id, test_name, result_id, value, unit, flag, status,
+                                        collected_at, reported_at)
+select distinct on (patient_id, test_name)
+       patient_id, test_name, id, value, unit, flag, status, collected_at, reported_at
+from lab_results
+order by patient_id, test_name, collected_at desc, id desc;
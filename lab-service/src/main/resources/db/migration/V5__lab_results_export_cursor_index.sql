@@ -0,0 +1,5 @@
+-- Export jobs walk lab_results in (collected_at, id) order across all patients,
+-- one keyset page at a time. Without this index every page would sort the
+-- whole date range.
+create index if not exists idx_lab_results_collected_id
+    on lab_results (collected_at, id);
@@ -0,0 +1,99 @@
+-- lab_results becomes a table range-partitioned by collected_at, one partition
+-- per UTC calendar month (lab_results_YYYY_MM). Queries bounded on
+-- collected_at only touch the months they cover, and months past the
+-- retention period are detached and archived by LabResultPartitionService
+-- instead of being deleted row by row.
+--
+-- The existing rows are copied into the new table, so the migration rewrites
+-- lab_results once; on a large table run it in a maintenance window.
+--
+-- A partitioned table's primary key must contain the partition key, so the
+-- key becomes (id, collected_at). Ids are still generated UUIDs, and every
+-- access path by id (findById, markVerified) keeps working; it now probes
+-- each attached month's key index.
+
+alter table lab_results rename to lab_results_unpartitioned;
+alter index lab_results_pkey rename to lab_results_unpartitioned_pkey;
+alter index idx_lab_results_patient_collected rename to idx_lab_results_unpartitioned_patient_collected;
+alter index idx_lab_results_patient_test_collected rename to idx_lab_results_unpartitioned_patient_test_collected;
+alter index idx_lab_results_critical_open rename to idx_lab_results_unpartitioned_critical_open;
+alter index idx_lab_results_collected_id rename to idx_lab_results_unpartitioned_collected_id;
+
+create table lab_results (
+    id                uuid                        not null,
+    collected_at      timestamp(6) with time zone not null,
+    flag              varchar(255)                not null
+        check (flag in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    patient_id        uuid                        not null,
+    reference_max     float(53),
+    reference_min     float(53),
+    reported_at       timestamp(6) with time zone,
+    status            varchar(255)                not null
+        check (status in ('PENDING', 'REPORTED', 'VERIFIED')),
+    test_name         varchar(255)                not null,
+    unit              varchar(255)                not null,
+    value             float(53)                   not null,
+    patient_sex       varchar(255)
+        check (patient_sex in ('MALE', 'FEMALE')),
+    patient_age_years integer
+        check (patient_age_years >= 0),
+    primary key (id, collected_at)
+) partition by range (collected_at);
+
+-- Catches rows outside the monthly partitions, such as late results for an
+-- archived month, so an insert never fails for want of a partition. It is
+-- never archived; lab.partitions.default.rows shows how much it holds.
+create table lab_results_default partition of lab_results default;
+
+-- One partition per month from the oldest stored result through three months
+-- ahead. After this, LabResultPartitionService keeps app.lab.partitions.months-ahead
+-- months created in advance.
+do $$
+declare
+    first_month timestamp;
+    month       timestamp;
+begin
+    select date_trunc('month', coalesce(min(collected_at), now()) at time zone 'UTC')
+    into first_month
+    from lab_results_unpartitioned;
+
+    for month in
+        select generate_series(first_month,
+                               date_trunc('month', now() at time zone 'UTC') + interval '3 months',
+                               interval '1 month')
+    loop
+        execute format('create table %I partition of lab_results for values from (%L) to (%L)',
+                       'lab_results_' || to_char(month, 'YYYY_MM'),
+                       month at time zone 'UTC',
+                       (month + interval '1 month') at time zone 'UTC');
+    end loop;
+end
+$$;
+
+insert into lab_results (id, collected_at, flag, patient_id, reference_max, reference_min, reported_at,
+                         status, test_name, unit, value, patient_sex, patient_age_years)
+select id, collected_at, flag, patient_id, reference_max, reference_min, reported_at,
+       status, test_name, unit, value, patient_sex, patient_age_years
+from lab_results_unpartitioned;
+
+drop table lab_results_unpartitioned;
+
+-- Same access-path indexes as V2 and V5, created on the parent so that every
+-- partition, including the ones created later, gets its own copy.
+create index idx_lab_results_patient_collected
+    on lab_results (patient_id, collected_at desc);
+
+create index idx_lab_results_patient_test_collected
+    on lab_results (patient_id, test_name, collected_at desc);
+
+create index idx_lab_results_critical_open
+    on lab_results (reported_at, id)
+    where flag = 'CRITICAL' and status <> 'VERIFIED';
+
+create index idx_lab_results_collected_id
+    on lab_results (collected_at, id);
+
+analyze lab_results;
+
+-- Detached months are moved here; see LabResultPartitionService.
+create schema if not exists lab_archive;
@@ -0,0 +1,62 @@
+package com.clinicalflow.notify.config;
+
+import com.clinicalflow.notify.event.DedupCheckpointLog;
+import com.clinicalflow.notify.event.EventDeduplicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * One deduplicator per listener, each with its own state files. Sizing is
+ * shared: {@code capacity} ids per Bloom generation at the target
+ * false-positive rate, rotated when full or after {@code window}. All of them
+ * share checkpoints with the other replicas through one {@link DedupCheckpointLog}.
+ */
+@Configuration
+public class DeduplicationConfig {
+
+    private final MeterRegistry meterRegistry;
+    private final Path directory;
+    private final long capacity;
+    private final double fpp;
+    private final Duration window;
+    private final int exactCapacity;
+    private final boolean fsync;
+    private final DedupCheckpointLog checkpoints;
+
+    public DeduplicationConfig(MeterRegistry meterRegistry,
+                               @Value("${app.dedup.directory:data/dedup}") Path directory,
+                               @Value("${app.dedup.filter.capacity:1000000}") long capacity,
+                               @Value("${app.dedup.filter.fpp:0.001}") double fpp,
+                               @Value("${app.dedup.filter.window:6h}") Duration window,
+                               @Value("${app.dedup.exact-capacity:100000}") int exactCapacity,
+                               @Value("${app.dedup.fsync:false}") boolean fsync,
+                               DedupCheckpointLog checkpoints) {
+        this.meterRegistry = meterRegistry;
+        this.directory = directory;
+        this.capacity = capacity;
+        this.fpp = fpp;
+        this.window = window;
+        this.exactCapacity = exactCapacity;
+        this.fsync = fsync;
+        this.checkpoints = checkpoints;
+    }
+
+    @Bean
+    public EventDeduplicator labResultDeduplicator() {
+        return create("lab-results");
+    }
+
+    @Bean
+    public EventDeduplicator patientEventDeduplicator() {
+        return create("patient-events");
+    }
+
+    private EventDeduplicator create(String name) {
+        return new EventDeduplicator(name, directory, capacity, fpp, window, exactCapacity, fsync, checkpoints, meterRegistry);
+    }
+}
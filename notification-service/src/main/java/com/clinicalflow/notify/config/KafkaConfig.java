@@ -0,0 +1,38 @@
+package com.clinicalflow.notify.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Open critical alerts, keyed by lab result id. Compacted, so the topic
+     * holds the latest state of each alert rather than its history and a
+     * replica can rebuild the open set from the beginning after any restart.
+     */
+    @Bean
+    public NewTopic alertsTopic(@Value("${app.kafka.topic.alerts:notification.alerts}") String topicName) {
+        return TopicBuilder.name(topicName)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+
+    /**
+     * Deduplication checkpoints, keyed by consumer and partition. Compacted to
+     * the latest checkpoint per key; a handful of keys needs one partition.
+     */
+    @Bean
+    public NewTopic dedupTopic(@Value("${app.kafka.topic.dedup:notification.dedup}") String topicName) {
+        return TopicBuilder.name(topicName)
+                .partitions(1)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.clinicalflow.notify.config;
+
+import com.clinicalflow.notify.event.AlertOwnership;
+import com.clinicalflow.notify.event.DedupCheckpointLog;
+import com.clinicalflow.notify.event.DedupCheckpointPositioner;
+import com.clinicalflow.notify.event.PatientCensusPositioner;
+import com.clinicalflow.notify.service.CriticalAlertTracker;
+import com.clinicalflow.notify.service.PatientCensus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * Batch listener factory for lab results. Concurrency defaults to the
+     * lab.results partition count, so each partition gets its own consumer
+     * thread; extra threads beyond that would sit idle. The partitions this
+     * instance is assigned decide which open alerts it escalates.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> labResultBatchFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            CriticalAlertTracker alertTracker,
+            @Value("${app.kafka.lab-results.concurrency:3}") int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setConsumerRebalanceListener(new AlertOwnership(alertTracker));
+        return factory;
+    }
+
+    /**
+     * Single-threaded batch factory for the census. Partitions are positioned
+     * from the census snapshot when they are assigned.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> patientCensusFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            PatientCensus census) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setConsumerRebalanceListener(new PatientCensusPositioner(census));
+        return factory;
+    }
+
+    /**
+     * Single-threaded batch factory for the shared deduplication checkpoints.
+     * The end offsets seen on assignment mark when the startup replay is done.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> dedupCheckpointFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DedupCheckpointLog checkpoints) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setConsumerRebalanceListener(new DedupCheckpointPositioner(checkpoints));
+        return factory;
+    }
+}
@@ -0,0 +1,37 @@
+package com.clinicalflow.notify.event;
+
+import com.clinicalflow.notify.service.CriticalAlertTracker;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+
+/**
+ * Tells the alert tracker which lab.results partitions this instance consumes,
+ * so exactly one replica escalates each open alert. Deliberately not a bean:
+ * Boot applies a rebalance listener bean to every container factory.
+ */
+public class AlertOwnership implements ConsumerAwareRebalanceListener {
+
+    private final CriticalAlertTracker tracker;
+
+    public AlertOwnership(CriticalAlertTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        tracker.assign(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        tracker.release(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        tracker.release(partitions.stream().map(TopicPartition::partition).toList());
+    }
+}
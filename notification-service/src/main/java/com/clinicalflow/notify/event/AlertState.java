@@ -0,0 +1,21 @@
+package com.clinicalflow.notify.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An open critical alert as recorded in the compacted {@code notification.alerts}
+ * topic, keyed by lab result id. A tombstone for the key closes the alert.
+ * {@code partition} is the lab.results partition the result was consumed from;
+ * whichever replica owns that partition escalates the alert.
+ */
+public record AlertState(
+        UUID labResultId,
+        UUID patientId,
+        String testName,
+        Double value,
+        String unit,
+        int partition,
+        Instant reportedAt,
+        Instant consumedAt,
+        Instant deadline) {}
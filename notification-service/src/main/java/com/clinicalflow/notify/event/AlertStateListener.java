@@ -0,0 +1,42 @@
+package com.clinicalflow.notify.event;
+
+import com.clinicalflow.notify.service.CriticalAlertTracker;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Materializes {@code notification.alerts} into the {@link CriticalAlertTracker}.
+ * Each instance uses its own consumer group and starts from the beginning of
+ * the compacted topic, so every replica holds every open alert: after a
+ * restart, and for acknowledgements that reach a replica other than the one
+ * that raised the alert.
+ */
+@Component
+public class AlertStateListener {
+
+    private final CriticalAlertTracker tracker;
+
+    public AlertStateListener(CriticalAlertTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @KafkaListener(
+            id = "alert-state",
+            topics = "${app.kafka.topic.alerts:notification.alerts}",
+            groupId = "notification-alerts-${random.uuid}",
+            properties = {
+                    "spring.json.value.default.type=com.clinicalflow.notify.event.AlertState",
+                    "auto.offset.reset=earliest",
+                    "enable.auto.commit=false"
+            })
+    public void handleAlertState(ConsumerRecord<String, AlertState> record) {
+        if (record.value() != null) {
+            tracker.restore(record.value());
+        } else {
+            tracker.closed(UUID.fromString(record.key()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.clinicalflow.notify.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Writes alert opens and closes to {@code notification.alerts}. Sends are not
+ * awaited: the tracker has already applied the change locally, and a failed
+ * send only means other replicas and the next restart do not see it.
+ */
+@Component
+public class AlertStatePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertStatePublisher.class);
+
+    private final KafkaTemplate<String, AlertState> kafkaTemplate;
+    private final String topic;
+
+    public AlertStatePublisher(KafkaTemplate<String, AlertState> kafkaTemplate,
+                               @Value("${app.kafka.topic.alerts:notification.alerts}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+    }
+
+    public void opened(AlertState state) {
+        send(state.labResultId(), state);
+    }
+
+    /** Writes a tombstone, so compaction eventually drops the alert from the topic. */
+    public void closed(UUID labResultId) {
+        send(labResultId, null);
+    }
+
+    private void send(UUID labResultId, AlertState state) {
+        kafkaTemplate.send(topic, labResultId.toString(), state).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.warn("Failed to record alert {} as {} in {}", labResultId, state == null ? "closed" : "open", topic, ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.clinicalflow.notify.event;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Fixed-size Bloom filter over event ids. Probe positions come from double
+ * hashing of the two halves of the UUID after a 64-bit finalizer, so ids that
+ * are not random (name-based or sequential) still spread evenly.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int hashes;
+    private final long capacity;
+    private final Instant createdAt;
+    private long bitsSet;
+    private long insertions;
+
+    private BloomFilter(long[] bits, int hashes, long capacity, Instant createdAt) {
+        this.bits = bits;
+        this.numBits = (long) bits.length * Long.SIZE;
+        this.hashes = hashes;
+        this.capacity = capacity;
+        this.createdAt = createdAt;
+    }
+
+    /** Sized so that {@code capacity} insertions give roughly {@code fpp} false positives. */
+    static BloomFilter create(long capacity, double fpp) {
+        long numBits = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (numBits + Long.SIZE - 1) / Long.SIZE);
+        return new BloomFilter(new long[words], hashes, capacity, Instant.now());
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    void put(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                bitsSet++;
+            }
+        }
+        insertions++;
+    }
+
+    /** Chance that an id never inserted is reported as present, from the current fill. */
+    double expectedFpp() {
+        return Math.pow((double) bitsSet / numBits, hashes);
+    }
+
+    boolean isFull() {
+        return insertions >= capacity;
+    }
+
+    long insertions() {
+        return insertions;
+    }
+
+    long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    Instant createdAt() {
+        return createdAt;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(hashes);
+        out.writeLong(capacity);
+        out.writeLong(createdAt.toEpochMilli());
+        out.writeLong(insertions);
+        out.writeInt(bits.length);
+        for (long word : bits) out.writeLong(word);
+    }
+
+    static BloomFilter readFrom(DataInput in) throws IOException {
+        int hashes = in.readInt();
+        long capacity = in.readLong();
+        Instant createdAt = Instant.ofEpochMilli(in.readLong());
+        long insertions = in.readLong();
+        long[] bits = new long[in.readInt()];
+        long bitsSet = 0;
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+            bitsSet += Long.bitCount(bits[i]);
+        }
+        BloomFilter filter = new BloomFilter(bits, hashes, capacity, createdAt);
+        filter.bitsSet = bitsSet;
+        filter.insertions = insertions;
+        return filter;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,69 @@
+package com.clinicalflow.notify.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers shared by the Kafka listeners. Offset lag per partition comes from
+ * the Kafka client metrics that Boot binds automatically
+ * ({@code kafka.consumer.fetch.manager.records.lag}); the timers here add the
+ * time dimension.
+ */
+@Component
+public class ConsumerMetrics {
+
+    /** CAP/CLIA expects critical values to reach a clinician within 30 minutes. */
+    private static final Duration[] ALERT_SLOS = {
+            Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30),
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(30)};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> lagByTopic = new ConcurrentHashMap<>();
+    private final Map<String, Timer> processingByTopic = new ConcurrentHashMap<>();
+    private final Timer alertLatency;
+
+    public ConsumerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.alertLatency = Timer.builder("clinical.alert.latency")
+                .description("Time from a critical result being reported to its alert being raised")
+                .serviceLevelObjectives(ALERT_SLOS)
+                .register(meterRegistry);
+    }
+
+    /** Time between the producer sending a record and this service picking it up. */
+    public void recordLag(ConsumerRecord<?, ?> record) {
+        long lagMillis = System.currentTimeMillis() - record.timestamp();
+        if (lagMillis < 0) lagMillis = 0;
+        lagByTopic.computeIfAbsent(record.topic(), topic -> Timer.builder("notification.consume.lag")
+                        .description("Age of a record when the listener receives it")
+                        .tag("topic", topic)
+                        .register(meterRegistry))
+                .record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Timer processing(String topic) {
+        return processingByTopic.computeIfAbsent(topic, t -> Timer.builder("notification.processing")
+                .description("Time spent handling one listener invocation")
+                .tag("topic", t)
+                .register(meterRegistry));
+    }
+
+    /**
+     * End-to-end alert latency, measured from the event's own timestamp, which
+     * the lab service sets when it reports the result. It therefore includes
+     * the outbox relay delay as well as broker and consumer time.
+     */
+    public void recordAlertRaised(Instant reportedAt) {
+        if (reportedAt == null) return;
+        long millis = Duration.between(reportedAt, Instant.now()).toMillis();
+        alertLatency.record(Math.max(millis, 0), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,23 @@
+package com.clinicalflow.notify.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One committed batch of a deduplicated consumer, for one partition: the
+ * offset processing resumes from and the event ids handled below it. Kept in
+ * the compacted {@code notification.dedup} topic, keyed by consumer and
+ * partition, so whichever replica takes the partition over next can
+ * recognize what the previous owner already handled.
+ */
+public record DedupCheckpoint(
+        String consumer,
+        String topic,
+        int partition,
+        long nextOffset,
+        List<UUID> ids) {
+
+    public String key() {
+        return consumer + "|" + topic + "-" + partition;
+    }
+}
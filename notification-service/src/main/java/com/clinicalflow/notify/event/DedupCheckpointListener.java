@@ -0,0 +1,36 @@
+package com.clinicalflow.notify.event;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds {@link DedupCheckpointLog} from {@code notification.dedup}. Each
+ * instance uses its own consumer group and reads the compacted topic from the
+ * beginning, so it starts with the latest checkpoint of every partition.
+ */
+@Component
+public class DedupCheckpointListener {
+
+    private final DedupCheckpointLog checkpoints;
+
+    public DedupCheckpointListener(DedupCheckpointLog checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    @KafkaListener(
+            id = "dedup-checkpoints",
+            topics = "${app.kafka.topic.dedup:notification.dedup}",
+            groupId = "notification-dedup-${random.uuid}",
+            containerFactory = "dedupCheckpointFactory",
+            properties = {
+                    "spring.json.value.default.type=com.clinicalflow.notify.event.DedupCheckpoint",
+                    "auto.offset.reset=earliest",
+                    "enable.auto.commit=false"
+            })
+    public void handleCheckpoints(List<ConsumerRecord<String, DedupCheckpoint>> records) {
+        checkpoints.apply(records);
+    }
+}
@@ -0,0 +1,152 @@
+package com.clinicalflow.notify.event;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares deduplication checkpoints between replicas through the compacted
+ * {@code notification.dedup} topic. Each committed batch is published per
+ * partition before the listener returns, that is before its offsets are
+ * committed, and every replica folds every checkpoint into its own
+ * {@link EventDeduplicator}. A batch that was handled but not committed when
+ * its consumer died is then recognized by the replica the partition moves to,
+ * not just by the same instance after a restart.
+ *
+ * <p>At startup, deduplicated listeners hold their first batch until the
+ * checkpoint topic has been read up to the end offsets seen on assignment, or
+ * until {@code max-wait} has passed since startup.
+ */
+@Component
+public class DedupCheckpointLog {
+
+    private static final Logger log = LoggerFactory.getLogger(DedupCheckpointLog.class);
+
+    private final KafkaTemplate<String, DedupCheckpoint> kafkaTemplate;
+    private final String topic;
+    private final long sendTimeoutMs;
+    private final long replayDeadline;
+
+    private final Map<String, EventDeduplicator> deduplicators = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> replayTargets = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition caughtUpSignal = lock.newCondition();
+    private volatile boolean assigned;
+    private volatile boolean caughtUp;
+
+    public DedupCheckpointLog(KafkaTemplate<String, DedupCheckpoint> kafkaTemplate,
+                              @Value("${app.kafka.topic.dedup:notification.dedup}") String topic,
+                              @Value("${app.dedup.checkpoint.send-timeout-ms:5000}") long sendTimeoutMs,
+                              @Value("${app.dedup.checkpoint.max-wait:30s}") Duration maxWait) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.replayDeadline = System.nanoTime() + maxWait.toNanos();
+    }
+
+    void register(String consumer, EventDeduplicator deduplicator) {
+        deduplicators.put(consumer, deduplicator);
+    }
+
+    /**
+     * Publishes one checkpoint per partition and waits for the broker to
+     * acknowledge them, up to {@code send-timeout-ms} for the whole batch. A
+     * checkpoint that fails is logged and skipped: the local journal still
+     * covers a restart of this instance.
+     */
+    void publish(String consumer, Map<TopicPartition, Long> offsets, Map<TopicPartition, List<UUID>> ids) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(offsets.size());
+        offsets.forEach((partition, next) -> {
+            DedupCheckpoint checkpoint = new DedupCheckpoint(consumer, partition.topic(), partition.partition(),
+                    next, ids.getOrDefault(partition, List.of()));
+            sends.add(kafkaTemplate.send(topic, checkpoint.key(), checkpoint));
+        });
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (CompletableFuture<?> send : sends) {
+            try {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Could not publish {} deduplication checkpoint to {}: {}", consumer, topic, e.toString());
+            }
+        }
+    }
+
+    /** Records how far the checkpoint topic has to be read before listeners may start. */
+    public void startReplay(Map<TopicPartition, Long> endOffsets) {
+        endOffsets.forEach((partition, end) -> {
+            if (end > 0) replayTargets.put(partition, end);
+        });
+        assigned = true;
+        checkCaughtUp();
+    }
+
+    public void stopReplay(Collection<TopicPartition> revoked) {
+        revoked.forEach(replayTargets::remove);
+        checkCaughtUp();
+    }
+
+    public void apply(List<ConsumerRecord<String, DedupCheckpoint>> records) {
+        for (ConsumerRecord<String, DedupCheckpoint> record : records) {
+            DedupCheckpoint checkpoint = record.value();
+            EventDeduplicator deduplicator = checkpoint == null ? null : deduplicators.get(checkpoint.consumer());
+            if (deduplicator != null) deduplicator.absorb(checkpoint);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            Long target = replayTargets.get(partition);
+            if (target != null && record.offset() + 1 >= target) replayTargets.remove(partition);
+        }
+        checkCaughtUp();
+    }
+
+    /** Blocks until the checkpoint replay has caught up or the startup wait has run out. */
+    void awaitReplay() {
+        if (caughtUp) return;
+        lock.lock();
+        try {
+            long remaining;
+            while (!caughtUp && (remaining = replayDeadline - System.nanoTime()) > 0) {
+                caughtUpSignal.awaitNanos(remaining);
+            }
+            if (!caughtUp) {
+                caughtUp = true;
+                log.warn("Deduplication checkpoints not caught up after the startup wait; continuing without them");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkCaughtUp() {
+        if (caughtUp || !assigned || !replayTargets.isEmpty()) return;
+        lock.lock();
+        try {
+            caughtUp = true;
+            caughtUpSignal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Deduplication checkpoints caught up");
+    }
+}
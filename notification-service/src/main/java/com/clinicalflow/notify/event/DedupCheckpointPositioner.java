@@ -0,0 +1,31 @@
+package com.clinicalflow.notify.event;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+
+/**
+ * Tells the checkpoint log how far the checkpoint topic reached when it was
+ * assigned. Deliberately not a bean: Boot applies a rebalance listener bean
+ * to every container factory.
+ */
+public class DedupCheckpointPositioner implements ConsumerAwareRebalanceListener {
+
+    private final DedupCheckpointLog checkpoints;
+
+    public DedupCheckpointPositioner(DedupCheckpointLog checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        checkpoints.startReplay(consumer.endOffsets(partitions));
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        checkpoints.stopReplay(partitions);
+    }
+}
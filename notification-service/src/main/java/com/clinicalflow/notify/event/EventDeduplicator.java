@@ -0,0 +1,403 @@
+package com.clinicalflow.notify.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Drops events a consumer has already handled, in bounded memory.
+ *
+ * <p>Ids are looked up in an exact LRU set of recent ids, backed by a pair of
+ * rotating Bloom filters for the longer tail. A filter hit alone is not proof:
+ * it also counts as a duplicate when the record sits below the partition's
+ * processed-offset watermark, which is what a redelivery after a rebalance or
+ * restart looks like. An event the producer sent twice, such as an outbox row
+ * relayed again after a send timeout, arrives at a new offset; for those a
+ * bare filter hit drops routine events but never a critical one, so a Bloom
+ * false positive cannot suppress a critical alert. A record below the
+ * watermark whose id is unknown is processed, which keeps a reset or
+ * recreated topic from being swallowed.
+ *
+ * <p>State is checkpointed together with the offsets it covers: each committed
+ * batch appends its ids and offsets to a journal before the listener returns,
+ * and a periodic snapshot folds the journal into one file. After a restart the
+ * snapshot and journal are replayed, so records the container redelivers are
+ * recognized instead of re-alerting.
+ *
+ * <p>The local files only cover a restart of the same instance. So that a
+ * partition can move to another replica, each committed batch is also
+ * published per partition to {@link DedupCheckpointLog}, and checkpoints from
+ * other replicas are folded in with {@link #absorb}. Every replica therefore
+ * holds the ids of every partition, and the filter capacity applies to the
+ * whole topic rather than to this instance's share of it.
+ */
+public class EventDeduplicator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x43464444;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_JOURNAL_ENTRY = 64 << 20;
+
+    /** Rough heap cost of one id in the LRU set: entry, key and table slot. */
+    private static final int EXACT_ENTRY_BYTES = 96;
+
+    private final String name;
+    private final long filterCapacity;
+    private final double filterFpp;
+    private final Duration window;
+    private final int exactCapacity;
+    private final boolean fsync;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final DedupCheckpointLog checkpoints;
+
+    private final Map<TopicPartition, Long> watermarks = new HashMap<>();
+    private final LinkedHashMap<UUID, Boolean> recent;
+    private BloomFilter current;
+    private BloomFilter previous;
+    private FileChannel journal;
+    private boolean dirty;
+
+    private final Counter offsetDuplicates;
+    private final Counter exactDuplicates;
+    private final Counter filterDuplicates;
+    private final Counter unconfirmed;
+
+    public EventDeduplicator(String name, Path directory, long filterCapacity, double filterFpp,
+                             Duration window, int exactCapacity, boolean fsync, DedupCheckpointLog checkpoints,
+                             MeterRegistry meterRegistry) {
+        this.name = name;
+        this.filterCapacity = filterCapacity;
+        this.filterFpp = filterFpp;
+        this.window = window;
+        this.exactCapacity = exactCapacity;
+        this.fsync = fsync;
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.journalFile = directory.resolve(name + ".journal");
+        this.checkpoints = checkpoints;
+        this.recent = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > EventDeduplicator.this.exactCapacity;
+            }
+        };
+        this.current = BloomFilter.create(filterCapacity, filterFpp);
+
+        try {
+            Files.createDirectories(directory);
+            restore();
+            journal = FileChannel.open(journalFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open deduplication state in " + directory, e);
+        }
+
+        this.offsetDuplicates = duplicateCounter(meterRegistry, "offset");
+        this.exactDuplicates = duplicateCounter(meterRegistry, "exact");
+        this.filterDuplicates = duplicateCounter(meterRegistry, "filter");
+        this.unconfirmed = Counter.builder("dedup.filter.unconfirmed")
+                .description("Filter hits the exact set could not confirm; an upper bound on false positives")
+                .tag("consumer", name)
+                .register(meterRegistry);
+        Gauge.builder("dedup.memory", this, EventDeduplicator::memoryBytes)
+                .description("Estimated heap held by the deduplication filters and exact id set")
+                .tag("consumer", name)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("dedup.filter.fpp", this, EventDeduplicator::expectedFpp)
+                .description("Expected false-positive rate of the Bloom filters at their current fill")
+                .tag("consumer", name)
+                .register(meterRegistry);
+        Gauge.builder("dedup.filter.insertions", this, EventDeduplicator::filterInsertions)
+                .description("Event ids held by the current and previous Bloom filters")
+                .tag("consumer", name)
+                .register(meterRegistry);
+        checkpoints.register(name, this);
+    }
+
+    private Counter duplicateCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("dedup.duplicates")
+                .description("Events dropped as already processed")
+                .tag("consumer", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a unit of work for one listener invocation. Right after startup
+     * this waits for the checkpoints of other replicas to be read.
+     */
+    public Batch begin() {
+        checkpoints.awaitReplay();
+        return new Batch();
+    }
+
+    /**
+     * Folds in a checkpoint read from the shared topic. Checkpoints already
+     * covered by the local watermark, this instance's own included, are skipped.
+     */
+    synchronized void absorb(DedupCheckpoint checkpoint) {
+        TopicPartition partition = new TopicPartition(checkpoint.topic(), checkpoint.partition());
+        Long watermark = watermarks.get(partition);
+        if (watermark != null && checkpoint.nextOffset() <= watermark) return;
+        apply(Map.of(partition, checkpoint.nextOffset()), checkpoint.ids());
+    }
+
+    /**
+     * Ids and offsets seen by one listener invocation. Nothing is recorded
+     * until {@link #commit()}, so a batch that fails and is redelivered is
+     * processed again rather than being mistaken for a duplicate.
+     */
+    public final class Batch {
+
+        private final Set<UUID> ids = new HashSet<>();
+        private final Map<TopicPartition, Long> offsets = new HashMap<>();
+        private final Map<TopicPartition, List<UUID>> partitionIds = new HashMap<>();
+
+        private Batch() {}
+
+        /**
+         * Returns true when the record was already processed. Pass a null
+         * {@code eventId} for records without a usable value; they still
+         * advance the offset watermark.
+         */
+        public boolean isDuplicate(ConsumerRecord<?, ?> record, UUID eventId, boolean critical) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            offsets.merge(partition, record.offset() + 1, Math::max);
+            synchronized (EventDeduplicator.this) {
+                Long watermark = watermarks.get(partition);
+                boolean redelivered = watermark != null && record.offset() < watermark;
+                if (eventId == null) {
+                    if (redelivered) offsetDuplicates.increment();
+                    return redelivered;
+                }
+                if (ids.contains(eventId) || recent.containsKey(eventId)) {
+                    (redelivered ? offsetDuplicates : exactDuplicates).increment();
+                    return true;
+                }
+                if (current.mightContain(eventId) || (previous != null && previous.mightContain(eventId))) {
+                    if (redelivered) {
+                        offsetDuplicates.increment();
+                        return true;
+                    }
+                    unconfirmed.increment();
+                    if (!critical) {
+                        filterDuplicates.increment();
+                        return true;
+                    }
+                }
+            }
+            ids.add(eventId);
+            partitionIds.computeIfAbsent(partition, p -> new ArrayList<>()).add(eventId);
+            return false;
+        }
+
+        /**
+         * Records the batch as processed, journals it and publishes its
+         * checkpoints before the offsets are committed.
+         */
+        public void commit() {
+            if (offsets.isEmpty()) return;
+            synchronized (EventDeduplicator.this) {
+                apply(offsets, ids);
+                appendJournal(offsets, ids);
+            }
+            checkpoints.publish(name, offsets, partitionIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dedup.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        if (!dirty) return;
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            writeOffsets(out, watermarks);
+            current.writeTo(out);
+            out.writeBoolean(previous != null);
+            if (previous != null) previous.writeTo(out);
+            out.writeInt(recent.size());
+            for (UUID id : recent.keySet()) writeId(out, id);
+        } catch (IOException e) {
+            log.warn("Could not write {} deduplication snapshot, keeping the journal", name, e);
+            return;
+        }
+        try {
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.truncate(0);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not replace {} deduplication snapshot", name, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        snapshot();
+        journal.close();
+    }
+
+    private void apply(Map<TopicPartition, Long> offsets, Iterable<UUID> ids) {
+        offsets.forEach((partition, next) -> watermarks.merge(partition, next, Math::max));
+        for (UUID id : ids) {
+            recent.put(id, Boolean.TRUE);
+            current.put(id);
+        }
+        if (current.isFull() || current.createdAt().plus(window).isBefore(Instant.now())) {
+            previous = current;
+            current = BloomFilter.create(filterCapacity, filterFpp);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Journal entries are length-prefixed and checksummed. A torn entry at the
+     * tail, from a crash mid-write, ends replay without failing startup.
+     */
+    private void appendJournal(Map<TopicPartition, Long> offsets, Set<UUID> ids) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + ids.size() * 16);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeOffsets(out, offsets);
+            out.writeInt(ids.size());
+            for (UUID id : ids) writeId(out, id);
+            byte[] payload = bytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer entry = ByteBuffer.allocate(12 + payload.length)
+                    .putInt(payload.length)
+                    .putLong(crc.getValue())
+                    .put(payload)
+                    .flip();
+            while (entry.hasRemaining()) journal.write(entry);
+            if (fsync) journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to " + journalFile, e);
+        }
+    }
+
+    private void restore() throws IOException {
+        if (Files.exists(snapshotFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+                if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                    throw new IOException("not a deduplication snapshot");
+                }
+                Map<TopicPartition, Long> offsets = readOffsets(in);
+                BloomFilter restoredCurrent = BloomFilter.readFrom(in);
+                BloomFilter restoredPrevious = in.readBoolean() ? BloomFilter.readFrom(in) : null;
+                List<UUID> ids = readIds(in);
+                watermarks.putAll(offsets);
+                current = restoredCurrent;
+                previous = restoredPrevious;
+                ids.forEach(id -> recent.put(id, Boolean.TRUE));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable {} deduplication snapshot: {}", name, e.toString());
+            }
+        }
+        if (Files.exists(journalFile)) {
+            int replayed = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+                while (true) {
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_JOURNAL_ENTRY) break;
+                    long checksum = in.readLong();
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    if (crc.getValue() != checksum) break;
+                    DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+                    apply(readOffsets(entry), readIds(entry));
+                    replayed++;
+                }
+            } catch (EOFException e) {
+                // end of journal, possibly a torn final entry
+            }
+            if (replayed > 0) log.info("Replayed {} {} deduplication journal entries", replayed, name);
+        }
+        if (!watermarks.isEmpty()) {
+            log.info("Restored {} deduplication state: {} partitions, {} recent ids",
+                    name, watermarks.size(), recent.size());
+        }
+    }
+
+    private static void writeOffsets(DataOutputStream out, Map<TopicPartition, Long> offsets) throws IOException {
+        out.writeInt(offsets.size());
+        for (Map.Entry<TopicPartition, Long> e : offsets.entrySet()) {
+            out.writeUTF(e.getKey().topic());
+            out.writeInt(e.getKey().partition());
+            out.writeLong(e.getValue());
+        }
+    }
+
+    private static Map<TopicPartition, Long> readOffsets(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<TopicPartition, Long> offsets = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            offsets.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+        }
+        return offsets;
+    }
+
+    private static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static List<UUID> readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) ids.add(new UUID(in.readLong(), in.readLong()));
+        return ids;
+    }
+
+    private synchronized double memoryBytes() {
+        long filters = current.sizeInBytes() + (previous == null ? 0 : previous.sizeInBytes());
+        return filters + (double) recent.size() * EXACT_ENTRY_BYTES;
+    }
+
+    private synchronized double expectedFpp() {
+        double miss = 1 - current.expectedFpp();
+        if (previous != null) miss *= 1 - previous.expectedFpp();
+        return 1 - miss;
+    }
+
+    private synchronized double filterInsertions() {
+        return current.insertions() + (previous == null ? 0 : previous.insertions());
+    }
+}
@@ -1,10 +1,18 @@
 package com.clinicalflow.notify.event;
 
+import com.clinicalflow.notify.service.AlertEnricher;
+import com.clinicalflow.notify.service.CriticalAlertTracker;
+import com.clinicalflow.notify.service.EnrichedAlert;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -12,34 +20,84 @@ public class LabResultConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(LabResultConsumer.class);
 
+    private final ConsumerMetrics metrics;
+    private final CriticalAlertTracker alertTracker;
+    private final EventDeduplicator deduplicator;
+    private final AlertEnricher enricher;
+
+    public LabResultConsumer(ConsumerMetrics metrics,
+                             CriticalAlertTracker alertTracker,
+                             @Qualifier("labResultDeduplicator") EventDeduplicator deduplicator,
+                             AlertEnricher enricher) {
+        this.metrics = metrics;
+        this.alertTracker = alertTracker;
+        this.deduplicator = deduplicator;
+        this.enricher = enricher;
+    }
+
     /**
-     * Consumes lab result events from Kafka.
+     * Consumes lab result events from Kafka, one poll batch at a time.
      *
      * In clinical practice, critical lab values (panic values) require immediate
      * notification to the ordering clinician — typically within 30 minutes per
-     * CAP/CLIA regulations. This consumer simulates that alert workflow.
+     * CAP/CLIA regulations. This consumer simulates that alert workflow. Critical
+     * events in a batch are alerted before any routine result in the same batch,
+     * so a burst of routine results never delays a panic value. Events already
+     * handled before a redelivery or a duplicate publish are dropped first.
+     * Critical alerts are joined with the local patient census for name, MRN
+     * and status.
      */
-    @KafkaListener(topics = "lab.results", groupId = "notification-service")
-    public void handleLabResult(Map<String, Object> event) {
-        String eventType = (String) event.get("eventType");
-        String testName = (String) event.get("testName");
-        Object valueObj = event.get("value");
-        String unit = (String) event.get("unit");
-        String flag = (String) event.get("flag");
-        Object criticalObj = event.get("critical");
-        String patientId = String.valueOf(event.get("patientId"));
-
-        boolean isCritical = criticalObj instanceof Boolean b && b;
-
-        if (isCritical) {
-            log.error("!!!! CRITICAL VALUE ALERT !!!!");
-            log.error("Patient: {} | Test: {} | Value: {} {} | Flag: {}",
-                    patientId, testName, valueObj, unit, flag);
-            log.error("ACTION REQUIRED: Notify ordering clinician within 30 minutes (CAP/CLIA)");
-            log.error("!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-        } else {
-            log.info("Lab result received: {} = {} {} [{}] for patient {}",
-                    testName, valueObj, unit, flag, patientId);
+    @KafkaListener(
+            topics = "${app.kafka.topic.lab-results:lab.results}",
+            groupId = "notification-service",
+            containerFactory = "labResultBatchFactory",
+            properties = {
+                    "spring.deserializer.value.delegate.class=com.clinicalflow.notify.event.LabResultEventDeserializer",
+                    "max.poll.records=${app.kafka.lab-results.max-poll-records:500}"
+            })
+    public void handleLabResults(List<ConsumerRecord<String, LabResultEvent>> records) {
+        if (records.isEmpty()) return;
+        metrics.processing(records.get(0).topic()).record(() -> process(records));
+    }
+
+    private void process(List<ConsumerRecord<String, LabResultEvent>> records) {
+        EventDeduplicator.Batch dedup = deduplicator.begin();
+        List<LabResultEvent> fresh = new ArrayList<>(records.size());
+        Map<LabResultEvent, Integer> partitions = new IdentityHashMap<>();
+        for (ConsumerRecord<String, LabResultEvent> record : records) {
+            metrics.recordLag(record);
+            LabResultEvent event = record.value();
+            if (dedup.isDuplicate(record, event == null ? null : event.eventId(), event != null && event.critical())) {
+                continue;
+            }
+            if (event == null) {
+                log.warn("Skipping undeserializable lab result at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset());
+            } else {
+                fresh.add(event);
+                partitions.put(event, record.partition());
+            }
+        }
+        List<LabResultEvent> critical = fresh.stream().filter(LabResultEvent::critical).toList();
+        if (!critical.isEmpty()) enricher.enrich(critical, alert -> alertCritical(alert, partitions.get(alert.result())));
+        for (LabResultEvent event : fresh) {
+            if (!event.critical()) {
+                log.info("Lab result received: {} = {} {} [{}] for patient {}",
+                        event.testName(), event.value(), event.unit(), event.flag(), event.patientId());
+            }
         }
+        dedup.commit();
+    }
+
+    private void alertCritical(EnrichedAlert alert, int partition) {
+        LabResultEvent event = alert.result();
+        log.error("!!!! CRITICAL VALUE ALERT !!!!");
+        log.error("Patient: {} (MRN: {}, {}, id {}) | Test: {} | Value: {} {} | Flag: {}",
+                alert.patientName(), alert.mrn(), alert.status(), event.patientId(),
+                event.testName(), event.value(), event.unit(), event.flag());
+        log.error("ACTION REQUIRED: Notify ordering clinician within 30 minutes (CAP/CLIA)");
+        log.error("!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
+        metrics.recordAlertRaised(event.reportedAt() != null ? event.reportedAt() : event.timestamp());
+        alertTracker.open(event, partition);
     }
 }
@@ -0,0 +1,24 @@
+package com.clinicalflow.notify.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Consumer-side view of the lab service's {@code LabResultEvent}. Unknown
+ * fields are ignored by the JSON deserializer and skipped by the binary codec,
+ * so the producer can add fields without breaking this service.
+ */
+public record LabResultEvent(
+        UUID eventId,
+        String eventType,
+        UUID labResultId,
+        UUID patientId,
+        String testName,
+        Double value,
+        String unit,
+        String flag,
+        boolean critical,
+        Instant collectedAt,
+        Instant reportedAt,
+        Instant timestamp) {
+}
@@ -0,0 +1,64 @@
+package com.clinicalflow.notify.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Decoder for the lab service's binary {@code LabResultEvent} encoding,
+ * version 1. The field numbers and enum tables mirror the producer's
+ * {@code LabResultEventCodec}; fields this side does not know are skipped.
+ */
+public final class LabResultEventCodec {
+
+    static final String[] EVENT_TYPES = {"RESULT_REPORTED", "CRITICAL_RESULT"};
+    static final String[] FLAGS = {"NORMAL", "LOW", "HIGH", "CRITICAL"};
+
+    private LabResultEventCodec() {}
+
+    public static LabResultEvent decode(byte[] bytes) {
+        UUID eventId = null;
+        String eventType = null;
+        UUID labResultId = null;
+        UUID patientId = null;
+        String testName = null;
+        Double value = null;
+        String unit = null;
+        String flag = null;
+        boolean critical = false;
+        Instant timestamp = null;
+        Instant collectedAt = null;
+        Instant reportedAt = null;
+
+        WireReader in = new WireReader(bytes);
+        for (int field = in.nextField(); field != 0; field = in.nextField()) {
+            switch (field) {
+                case 1 -> eventId = in.readUuid();
+                case 2 -> eventType = enumName(EVENT_TYPES, in.readCode());
+                case 3 -> eventType = in.readString();
+                case 4 -> labResultId = in.readUuid();
+                case 5 -> patientId = in.readUuid();
+                case 6 -> testName = in.readString();
+                case 7 -> value = in.readDouble();
+                case 8 -> unit = in.readString();
+                case 9 -> flag = enumName(FLAGS, in.readCode());
+                case 10 -> flag = in.readString();
+                case 11 -> critical = in.readBoolean();
+                case 12 -> timestamp = in.readInstant();
+                case 13 -> collectedAt = in.readInstant();
+                case 14 -> reportedAt = in.readInstant();
+                default -> in.skip();
+            }
+        }
+        return new LabResultEvent(eventId, eventType, labResultId, patientId,
+                testName, value, unit, flag, critical, collectedAt, reportedAt, timestamp);
+    }
+
+    /**
+     * Names an enum code. A code from a newer producer's table decodes to
+     * {@code UNKNOWN_<code>} instead of failing, so the rest of the event is
+     * still processed.
+     */
+    static String enumName(String[] table, int code) {
+        return code >= 1 && code <= table.length ? table[code - 1] : "UNKNOWN_" + code;
+    }
+}
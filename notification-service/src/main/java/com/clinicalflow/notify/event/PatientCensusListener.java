@@ -0,0 +1,38 @@
+package com.clinicalflow.notify.event;
+
+import com.clinicalflow.notify.service.PatientCensus;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds {@link PatientCensus} from {@code patient.events}. Each instance uses
+ * its own consumer group, so every replica reads all partitions, and positions
+ * come from the census snapshot rather than from committed group offsets (see
+ * {@link PatientCensusPositioner}).
+ */
+@Component
+public class PatientCensusListener {
+
+    private final PatientCensus census;
+
+    public PatientCensusListener(PatientCensus census) {
+        this.census = census;
+    }
+
+    @KafkaListener(
+            id = "patient-census",
+            topics = "${app.kafka.topic.patient-events:patient.events}",
+            groupId = "notification-census-${random.uuid}",
+            containerFactory = "patientCensusFactory",
+            properties = {
+                    "spring.deserializer.value.delegate.class=com.clinicalflow.notify.event.PatientEventDeserializer",
+                    "max.poll.records=${app.census.max-poll-records:2000}",
+                    "enable.auto.commit=false"
+            })
+    public void handlePatientEvents(List<ConsumerRecord<String, PatientEvent>> records) {
+        census.apply(records);
+    }
+}
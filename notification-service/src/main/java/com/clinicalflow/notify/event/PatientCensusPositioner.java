@@ -0,0 +1,53 @@
+package com.clinicalflow.notify.event;
+
+import com.clinicalflow.notify.service.PatientCensus;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Seeks each partition assigned to the census listener to the census snapshot
+ * offset, or to the beginning when the census has none, and tells the census
+ * how far it has to replay. Deliberately not a bean: Boot applies a rebalance
+ * listener bean to every container factory.
+ */
+public class PatientCensusPositioner implements ConsumerAwareRebalanceListener {
+
+    private final PatientCensus census;
+
+    public PatientCensusPositioner(PatientCensus census) {
+        this.census = census;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<TopicPartition> fromBeginning = new ArrayList<>();
+        Map<TopicPartition, Long> start = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            Optional<Long> resume = census.resumeOffset(partition);
+            if (resume.isPresent()) {
+                consumer.seek(partition, resume.get());
+                start.put(partition, resume.get());
+            } else {
+                fromBeginning.add(partition);
+            }
+        }
+        if (!fromBeginning.isEmpty()) {
+            consumer.seekToBeginning(fromBeginning);
+            consumer.beginningOffsets(fromBeginning).forEach(start::put);
+        }
+        census.startReplay(start, consumer.endOffsets(partitions));
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        census.stopReplay(partitions);
+    }
+}
@@ -0,0 +1,19 @@
+package com.clinicalflow.notify.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Consumer-side view of the patient service's {@code PatientEvent}. Unknown
+ * fields are ignored by the JSON deserializer and skipped by the binary codec.
+ */
+public record PatientEvent(
+        UUID eventId,
+        String eventType,
+        UUID patientId,
+        String mrn,
+        String patientName,
+        String previousStatus,
+        String newStatus,
+        Instant timestamp) {
+}
@@ -0,0 +1,50 @@
+package com.clinicalflow.notify.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Decoder for the patient service's binary {@code PatientEvent} encoding,
+ * version 1. The field numbers and enum tables mirror the producer's
+ * {@code PatientEventCodec}; fields this side does not know are skipped.
+ */
+public final class PatientEventCodec {
+
+    static final String[] EVENT_TYPES = {
+            "PATIENT_REGISTERED", "PATIENT_ADMITTED", "PATIENT_DISCHARGED",
+            "PATIENT_TRANSFERRED", "PATIENT_UPDATED"};
+    static final String[] STATUSES = {"REGISTERED", "ADMITTED", "DISCHARGED", "TRANSFERRED"};
+
+    private PatientEventCodec() {}
+
+    public static PatientEvent decode(byte[] bytes) {
+        UUID eventId = null;
+        String eventType = null;
+        UUID patientId = null;
+        String mrn = null;
+        String patientName = null;
+        String previousStatus = null;
+        String newStatus = null;
+        Instant timestamp = null;
+
+        WireReader in = new WireReader(bytes);
+        for (int field = in.nextField(); field != 0; field = in.nextField()) {
+            switch (field) {
+                case 1 -> eventId = in.readUuid();
+                case 2 -> eventType = LabResultEventCodec.enumName(EVENT_TYPES, in.readCode());
+                case 3 -> eventType = in.readString();
+                case 4 -> patientId = in.readUuid();
+                case 5 -> mrn = in.readString();
+                case 6 -> patientName = in.readString();
+                case 7 -> previousStatus = LabResultEventCodec.enumName(STATUSES, in.readCode());
+                case 8 -> previousStatus = in.readString();
+                case 9 -> newStatus = LabResultEventCodec.enumName(STATUSES, in.readCode());
+                case 10 -> newStatus = in.readString();
+                case 11 -> timestamp = in.readInstant();
+                default -> in.skip();
+            }
+        }
+        return new PatientEvent(eventId, eventType, patientId, mrn, patientName,
+                previousStatus, newStatus, timestamp);
+    }
+}
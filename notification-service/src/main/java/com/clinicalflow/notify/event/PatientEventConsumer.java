@@ -1,23 +1,44 @@
 package com.clinicalflow.notify.event;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 @Component
 public class PatientEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(PatientEventConsumer.class);
 
-    @KafkaListener(topics = "patient.events", groupId = "notification-service")
-    public void handlePatientEvent(Map<String, Object> event) {
-        String eventType = (String) event.get("eventType");
-        String patientName = (String) event.get("patientName");
-        String mrn = (String) event.get("mrn");
-        String newStatus = (String) event.get("newStatus");
+    private final ConsumerMetrics metrics;
+    private final EventDeduplicator deduplicator;
+
+    public PatientEventConsumer(ConsumerMetrics metrics,
+                                @Qualifier("patientEventDeduplicator") EventDeduplicator deduplicator) {
+        this.metrics = metrics;
+        this.deduplicator = deduplicator;
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topic.patient-events:patient.events}",
+            groupId = "notification-service",
+            properties = "spring.deserializer.value.delegate.class=com.clinicalflow.notify.event.PatientEventDeserializer")
+    public void handlePatientEvent(ConsumerRecord<String, PatientEvent> record) {
+        metrics.recordLag(record);
+        PatientEvent event = record.value();
+        EventDeduplicator.Batch dedup = deduplicator.begin();
+        if (!dedup.isDuplicate(record, event == null ? null : event.eventId(), false) && event != null) {
+            metrics.processing(record.topic()).record(() -> process(event));
+        }
+        dedup.commit();
+    }
+
+    private void process(PatientEvent event) {
+        String eventType = event.eventType();
+        String patientName = event.patientName();
+        String mrn = event.mrn();
 
         switch (eventType) {
             case "PATIENT_ADMITTED" -> log.info(
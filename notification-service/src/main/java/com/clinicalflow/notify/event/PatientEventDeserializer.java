@@ -0,0 +1,47 @@
+package com.clinicalflow.notify.event;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reads {@link PatientEvent}s in whichever encoding the producer recorded in
+ * the {@value WireFormat#HEADER} header. Records without the header predate
+ * the binary format and are read as JSON.
+ */
+public class PatientEventDeserializer implements Deserializer<PatientEvent> {
+
+    private static final byte[] BINARY_HEADER = WireFormat.BINARY_V1.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonDeserializer<PatientEvent> json = new JsonDeserializer<>(PatientEvent.class, false);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // The JSON target type is fixed; type headers and type properties are ignored.
+    }
+
+    @Override
+    public PatientEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public PatientEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) return null;
+        Header format = headers == null ? null : headers.lastHeader(WireFormat.HEADER);
+        if (format != null && Arrays.equals(format.value(), BINARY_HEADER)) {
+            return PatientEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,20 @@
+package com.clinicalflow.notify.event;
+
+/**
+ * Names shared by producers and consumers for negotiating the event encoding.
+ *
+ * Producers stamp every record with {@link #HEADER}. Consumers decode binary
+ * only when the header says so and fall back to JSON otherwise, so a topic can
+ * carry both encodings while producers are switched over one at a time.
+ */
+public final class WireFormat {
+
+    /** Producer config key selecting the value encoding: {@code json} or {@code binary}. */
+    public static final String CONFIG = "clinicalflow.wire.format";
+
+    public static final String HEADER = "cf-wire-format";
+    public static final String JSON = "json";
+    public static final String BINARY_V1 = "binary-v1";
+
+    private WireFormat() {}
+}
@@ -0,0 +1,39 @@
+package com.clinicalflow.notify.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    private final CriticalAlertTracker tracker;
+
+    public AlertController(CriticalAlertTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @PostMapping("/{labResultId}/ack")
+    public ResponseEntity<Void> acknowledge(@PathVariable UUID labResultId) {
+        return tracker.acknowledge(labResultId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/open")
+    public List<CriticalAlertTracker.OpenAlertView> open() {
+        return tracker.openAlerts();
+    }
+
+    @GetMapping("/slo")
+    public CriticalAlertTracker.SloReport slo() {
+        return tracker.report();
+    }
+}
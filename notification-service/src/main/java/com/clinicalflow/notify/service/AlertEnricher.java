@@ -0,0 +1,130 @@
+package com.clinicalflow.notify.service;
+
+import com.clinicalflow.notify.event.LabResultEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Joins lab results with the local {@link PatientCensus}, so alerts carry the
+ * patient's name, MRN and status without a call to patient-service.
+ *
+ * <p>Both topics are keyed by patient id, so a patient's registration and
+ * their results normally arrive in order. The census listener reads every
+ * partition of {@code patient.events} in every instance, so the join holds
+ * whichever lab.results partitions this instance owns. A result can still
+ * overtake its patient while the census is replaying after a restart. Those
+ * results are buffered and retried as the census advances, until the replay
+ * catches up or {@code max-wait} passes, and then emitted without patient
+ * context rather than held back: a critical alert is never dropped for want
+ * of a name. Once the census has caught up, a patient it does not know will
+ * not turn up by waiting, so such results are emitted straight away.
+ */
+@Component
+public class AlertEnricher {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertEnricher.class);
+
+    private final PatientCensus census;
+    private final Duration maxWait;
+    private final Counter joined;
+    private final Counter joinedAfterWait;
+    private final Counter unmatched;
+    private final Timer waitTimer;
+
+    public AlertEnricher(PatientCensus census,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.alerts.enrichment.max-wait:5s}") Duration maxWait) {
+        this.census = census;
+        this.maxWait = maxWait;
+        this.joined = outcomeCounter(meterRegistry, "joined");
+        this.joinedAfterWait = outcomeCounter(meterRegistry, "joined-after-wait");
+        this.unmatched = outcomeCounter(meterRegistry, "unmatched");
+        this.waitTimer = Timer.builder("alert.enrichment.wait")
+                .description("Time lab results spent buffered waiting for their patient to reach the census")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("alert.enrichment")
+                .description("Lab results joined with the patient census, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Passes every result to {@code sink} exactly once, enriched where possible.
+     * Results whose patient is already known go first; the rest are buffered
+     * and emitted as their patient appears or when the wait runs out; there
+     * is no wait once the census has caught up. Returns
+     * only after every result has been emitted, so the caller can commit the
+     * batch afterwards.
+     */
+    public void enrich(List<LabResultEvent> results, Consumer<EnrichedAlert> sink) {
+        List<LabResultEvent> pending = new ArrayList<>();
+        for (LabResultEvent result : results) {
+            PatientCensus.CensusEntry patient = census.find(result.patientId()).orElse(null);
+            if (patient != null) {
+                joined.increment();
+                sink.accept(new EnrichedAlert(result, patient));
+            } else {
+                pending.add(result);
+            }
+        }
+        if (pending.isEmpty()) return;
+        if (census.caughtUp()) {
+            emitUnmatched(pending, sink);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Instant deadline = Instant.now().plus(maxWait);
+        try {
+            while (!pending.isEmpty()) {
+                Set<UUID> waitingFor = new HashSet<>();
+                for (LabResultEvent result : pending) waitingFor.add(result.patientId());
+                Map<UUID, PatientCensus.CensusEntry> found = census.await(waitingFor, deadline);
+                if (found.isEmpty()) break;
+                List<LabResultEvent> stillPending = new ArrayList<>();
+                for (LabResultEvent result : pending) {
+                    PatientCensus.CensusEntry patient = found.get(result.patientId());
+                    if (patient != null) {
+                        joinedAfterWait.increment();
+                        sink.accept(new EnrichedAlert(result, patient));
+                    } else {
+                        stillPending.add(result);
+                    }
+                }
+                pending = stillPending;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        emitUnmatched(pending, sink);
+    }
+
+    private void emitUnmatched(List<LabResultEvent> results, Consumer<EnrichedAlert> sink) {
+        for (LabResultEvent result : results) {
+            unmatched.increment();
+            log.warn("Patient {} not in the census; alerting without patient context", result.patientId());
+            sink.accept(new EnrichedAlert(result, null));
+        }
+    }
+}
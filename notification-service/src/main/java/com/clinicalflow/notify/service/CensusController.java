@@ -0,0 +1,42 @@
+package com.clinicalflow.notify.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/census")
+public class CensusController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final PatientCensus census;
+
+    public CensusController(PatientCensus census) {
+        this.census = census;
+    }
+
+    @GetMapping
+    public PatientCensus.CensusSummary summary() {
+        return census.summary();
+    }
+
+    @GetMapping("/status/{status}")
+    public List<PatientCensus.CensusEntry> byStatus(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "100") int limit) {
+        return census.list(status.toUpperCase(Locale.ROOT), Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @GetMapping("/patients/{patientId}")
+    public ResponseEntity<PatientCensus.CensusEntry> patient(@PathVariable UUID patientId) {
+        return ResponseEntity.of(census.find(patientId));
+    }
+}
@@ -0,0 +1,448 @@
+package com.clinicalflow.notify.service;
+
+import com.clinicalflow.notify.event.AlertState;
+import com.clinicalflow.notify.event.AlertStatePublisher;
+import com.clinicalflow.notify.event.LabResultEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks critical-value alerts from the moment the consumer raises them until
+ * a clinician acknowledges them, and keeps the latency of every hop in HDR
+ * histograms so SLO compliance can be reported over rolling windows.
+ *
+ * <p>Open alerts sit in a min-heap ordered by their next escalation time, with
+ * a map by lab result id for acknowledgement. Acknowledging only removes the
+ * map entry; the heap entry is discarded when it reaches the head, so both
+ * open and ack are O(log n) and the escalation check only looks at alerts
+ * that are actually due.
+ *
+ * <p>Opens and closes are also written to the compacted {@code notification.alerts}
+ * topic, which every replica reads back in full (see {@code AlertStateListener}).
+ * So every replica knows every open alert: a restart rebuilds the open set
+ * from the topic, and a clinician can acknowledge on any replica. Only the
+ * replica that consumes the alert's lab.results partition escalates it; when a
+ * partition moves, the new owner rebuilds the deadline queue for that
+ * partition's alerts. The new owner does not know which escalations the old
+ * one raised, so it raises the most severe one already due again, as for a
+ * result that arrives late.
+ *
+ * <p>Each stage records into a {@link Recorder}. Every {@code interval} the
+ * recorders are swapped into a ring of interval histograms covering
+ * {@code retention}; a window report merges the newest intervals, so it trails
+ * live traffic by at most one interval.
+ */
+@Component
+public class CriticalAlertTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(CriticalAlertTracker.class);
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final List<Duration> WINDOWS = List.of(
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofMinutes(60));
+
+    public enum Stage {
+        COLLECTED_TO_REPORTED,
+        REPORTED_TO_CONSUMED,
+        CONSUMED_TO_ACKED,
+        REPORTED_TO_ACKED
+    }
+
+    private final Duration ackDeadline;
+    private final List<Duration> escalateBefore;
+    private final Duration abandonAfter;
+    private final Duration interval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, OpenAlert> open = new HashMap<>();
+    private final PriorityQueue<Due> due = new PriorityQueue<>(Comparator.comparing(Due::at));
+    private final Set<Integer> owned = new HashSet<>();
+    private final AlertStatePublisher publisher;
+
+    private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram[]> ring = new EnumMap<>(Stage.class);
+    private int ringHead;
+    private int ringFilled;
+
+    private final List<Counter> escalations = new ArrayList<>();
+    private final Counter abandoned;
+
+    public CriticalAlertTracker(MeterRegistry meterRegistry,
+                                AlertStatePublisher publisher,
+                                @Value("${app.alerts.ack-deadline:30m}") Duration ackDeadline,
+                                @Value("${app.alerts.escalate-before:10m,5m}") List<Duration> escalateBefore,
+                                @Value("${app.alerts.abandon-after:24h}") Duration abandonAfter,
+                                @Value("${app.alerts.slo.interval-ms:60000}") long intervalMs,
+                                @Value("${app.alerts.slo.retention:60m}") Duration retention) {
+        Duration interval = Duration.ofMillis(intervalMs);
+        if (intervalMs <= 0 || retention.compareTo(interval) < 0) {
+            throw new IllegalArgumentException("app.alerts.slo.retention must be at least one interval");
+        }
+        this.publisher = publisher;
+        this.ackDeadline = ackDeadline;
+        this.escalateBefore = escalateBefore.stream()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        this.abandonAfter = abandonAfter;
+        this.interval = interval;
+
+        int slots = (int) (retention.toMillis() / interval.toMillis());
+        for (Stage stage : Stage.values()) {
+            recorders.put(stage, new Recorder(SIGNIFICANT_DIGITS));
+            ring.put(stage, new Histogram[slots]);
+        }
+
+        for (Duration before : this.escalateBefore) {
+            escalations.add(escalationCounter(meterRegistry, "due-in-" + before.toMinutes() + "m"));
+        }
+        escalations.add(escalationCounter(meterRegistry, "overdue"));
+        this.abandoned = Counter.builder("clinical.alert.abandoned")
+                .description("Critical alerts dropped from tracking without ever being acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("clinical.alert.open", this, CriticalAlertTracker::openCount)
+                .description("Critical alerts raised but not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("clinical.alert.overdue", this, CriticalAlertTracker::overdueCount)
+                .description("Open critical alerts past their acknowledgement deadline")
+                .register(meterRegistry);
+    }
+
+    private static Counter escalationCounter(MeterRegistry meterRegistry, String level) {
+        return Counter.builder("clinical.alert.escalations")
+                .description("Escalations raised for unacknowledged critical alerts")
+                .tag("level", level)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts tracking an alert. The deadline runs from when the lab reported
+     * the result, falling back to the event timestamp for producers that do
+     * not send {@code reportedAt}. A redelivered event for an alert that is
+     * still open is ignored. {@code partition} is the lab.results partition
+     * the event was consumed from.
+     */
+    public void open(LabResultEvent event, int partition) {
+        Instant consumedAt = Instant.now();
+        Instant reportedAt = event.reportedAt() != null ? event.reportedAt() : event.timestamp();
+        if (reportedAt == null) reportedAt = consumedAt;
+
+        OpenAlert alert = new OpenAlert(new AlertState(event.labResultId(), event.patientId(), event.testName(),
+                event.value(), event.unit(), partition, reportedAt, consumedAt, reportedAt.plus(ackDeadline)));
+        lock.lock();
+        try {
+            if (open.containsKey(event.labResultId())) return;
+            open.put(event.labResultId(), alert);
+            catchUp(alert, consumedAt);
+            if (owned.contains(partition)) scheduleNext(alert);
+        } finally {
+            lock.unlock();
+        }
+        publisher.opened(alert.state);
+
+        record(Stage.COLLECTED_TO_REPORTED, event.collectedAt(), reportedAt);
+        record(Stage.REPORTED_TO_CONSUMED, reportedAt, consumedAt);
+    }
+
+    /**
+     * Applies an open alert read back from the alerts topic. Alerts this
+     * instance already tracks, including its own opens, are left as they are.
+     */
+    public void restore(AlertState state) {
+        lock.lock();
+        try {
+            if (open.containsKey(state.labResultId())) return;
+            OpenAlert alert = new OpenAlert(state);
+            open.put(state.labResultId(), alert);
+            catchUp(alert, Instant.now());
+            if (owned.contains(state.partition())) scheduleNext(alert);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Applies a close read back from the alerts topic. */
+    public void closed(UUID labResultId) {
+        lock.lock();
+        try {
+            open.remove(labResultId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes over escalation of the open alerts from these lab.results partitions. */
+    public void assign(Collection<Integer> partitions) {
+        Instant now = Instant.now();
+        lock.lock();
+        try {
+            owned.addAll(partitions);
+            for (OpenAlert alert : open.values()) {
+                if (alert.scheduled == null && partitions.contains(alert.state.partition())) {
+                    catchUp(alert, now);
+                    scheduleNext(alert);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stops escalating alerts from these partitions; their heap entries are dropped as they come due. */
+    public void release(Collection<Integer> partitions) {
+        lock.lock();
+        try {
+            owned.removeAll(partitions);
+            for (OpenAlert alert : open.values()) {
+                if (partitions.contains(alert.state.partition())) alert.scheduled = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns false when no open alert exists for the lab result. Any replica
+     * can acknowledge; the close is published so the others, and the owner
+     * in particular, stop tracking the alert too.
+     */
+    public boolean acknowledge(UUID labResultId) {
+        OpenAlert alert;
+        lock.lock();
+        try {
+            alert = open.remove(labResultId);
+        } finally {
+            lock.unlock();
+        }
+        if (alert == null) return false;
+        publisher.closed(labResultId);
+
+        Instant ackedAt = Instant.now();
+        record(Stage.CONSUMED_TO_ACKED, alert.state.consumedAt(), ackedAt);
+        record(Stage.REPORTED_TO_ACKED, alert.state.reportedAt(), ackedAt);
+        return true;
+    }
+
+    public List<OpenAlertView> openAlerts() {
+        lock.lock();
+        try {
+            return open.values().stream()
+                    .sorted(Comparator.comparing((OpenAlert a) -> a.state.deadline()))
+                    .map(OpenAlert::view)
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.escalation-check-interval-ms:1000}")
+    public void escalate() {
+        Instant now = Instant.now();
+        List<Escalation> raised = new ArrayList<>();
+        List<UUID> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            Due head;
+            while ((head = due.peek()) != null && !head.at.isAfter(now)) {
+                due.poll();
+                OpenAlert alert = head.alert;
+                if (alert.scheduled != head || open.get(alert.state.labResultId()) != alert) continue;
+                if (head.level < escalations.size()) {
+                    alert.level = head.level + 1;
+                    raised.add(new Escalation(alert.view(), head.level));
+                    scheduleNext(alert);
+                } else {
+                    open.remove(alert.state.labResultId());
+                    dropped.add(alert.state.labResultId());
+                    abandoned.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        dropped.forEach(publisher::closed);
+
+        for (Escalation escalation : raised) {
+            escalations.get(escalation.level).increment();
+            OpenAlertView alert = escalation.alert;
+            if (escalation.level == escalations.size() - 1) {
+                log.error("Critical alert OVERDUE: patient {} | {} = {} {} | deadline {} passed without acknowledgement",
+                        alert.patientId(), alert.testName(), alert.value(), alert.unit(), alert.deadline());
+            } else {
+                log.warn("Critical alert escalation: patient {} | {} = {} {} | unacknowledged, deadline {}",
+                        alert.patientId(), alert.testName(), alert.value(), alert.unit(), alert.deadline());
+            }
+        }
+    }
+
+    /** Skips the escalations before the most severe one already due, so an alert picked up late raises only that one. */
+    private void catchUp(OpenAlert alert, Instant now) {
+        while (alert.level < escalateBefore.size() && !escalationPoint(alert, alert.level + 1).isAfter(now)) {
+            alert.level++;
+        }
+    }
+
+    /**
+     * Queues the alert's next escalation point, or its abandonment once
+     * overdue. Only the latest entry per alert counts; older ones are skipped.
+     */
+    private void scheduleNext(OpenAlert alert) {
+        alert.scheduled = new Due(escalationPoint(alert, alert.level), alert.level, alert);
+        due.add(alert.scheduled);
+    }
+
+    private Instant escalationPoint(OpenAlert alert, int level) {
+        if (level < escalateBefore.size()) return alert.state.deadline().minus(escalateBefore.get(level));
+        if (level == escalateBefore.size()) return alert.state.deadline();
+        return alert.state.reportedAt().plus(abandonAfter);
+    }
+
+    private void record(Stage stage, Instant from, Instant to) {
+        if (from == null || to == null) return;
+        recorders.get(stage).recordValue(Math.max(Duration.between(from, to).toMillis(), 0));
+    }
+
+    /** Closes the current interval of every stage and moves it into the ring. */
+    @Scheduled(fixedRateString = "${app.alerts.slo.interval-ms:60000}",
+            initialDelayString = "${app.alerts.slo.interval-ms:60000}")
+    public void rotate() {
+        synchronized (ring) {
+            int slot = ringHead;
+            for (Stage stage : Stage.values()) {
+                Histogram[] slots = ring.get(stage);
+                slots[slot] = recorders.get(stage).getIntervalHistogram(slots[slot]);
+            }
+            ringHead = (slot + 1) % ring.get(Stage.REPORTED_TO_ACKED).length;
+            ringFilled = Math.min(ringFilled + 1, ring.get(Stage.REPORTED_TO_ACKED).length);
+        }
+    }
+
+    public SloReport report() {
+        Map<String, Map<Stage, StageSummary>> windows = new LinkedHashMap<>();
+        synchronized (ring) {
+            int slots = ring.get(Stage.REPORTED_TO_ACKED).length;
+            for (Duration window : WINDOWS) {
+                int count = (int) Math.min(Math.max(window.toMillis() / interval.toMillis(), 1), ringFilled);
+                if (count == 0) continue;
+                Map<Stage, StageSummary> stages = new EnumMap<>(Stage.class);
+                for (Stage stage : Stage.values()) {
+                    Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+                    Histogram[] ringSlots = ring.get(stage);
+                    for (int i = 1; i <= count; i++) {
+                        merged.add(ringSlots[Math.floorMod(ringHead - i, slots)]);
+                    }
+                    stages.put(stage, StageSummary.of(merged, ackDeadline));
+                }
+                windows.put(window.toMinutes() + "m", stages);
+            }
+        }
+        return new SloReport(ackDeadline, openCount(), overdueCount(), windows);
+    }
+
+    private int openCount() {
+        lock.lock();
+        try {
+            return open.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int overdueCount() {
+        Instant now = Instant.now();
+        lock.lock();
+        try {
+            int overdue = 0;
+            for (OpenAlert alert : open.values()) {
+                if (alert.state.deadline().isBefore(now)) overdue++;
+            }
+            return overdue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class OpenAlert {
+        final AlertState state;
+        int level;
+        Due scheduled;
+
+        OpenAlert(AlertState state) {
+            this.state = state;
+        }
+
+        OpenAlertView view() {
+            return new OpenAlertView(state.labResultId(), state.patientId(), state.testName(),
+                    state.value(), state.unit(), state.reportedAt(), state.consumedAt(), state.deadline(), level);
+        }
+    }
+
+    private record Due(Instant at, int level, OpenAlert alert) {}
+
+    private record Escalation(OpenAlertView alert, int level) {}
+
+    public record OpenAlertView(
+            UUID labResultId,
+            UUID patientId,
+            String testName,
+            Double value,
+            String unit,
+            Instant reportedAt,
+            Instant consumedAt,
+            Instant deadline,
+            int escalationLevel) {}
+
+    public record SloReport(
+            Duration ackDeadline,
+            int openAlerts,
+            int overdueAlerts,
+            Map<String, Map<Stage, StageSummary>> windows) {}
+
+    /**
+     * Latency percentiles in milliseconds. {@code withinDeadline} is the share
+     * of samples at or under the acknowledgement deadline.
+     */
+    public record StageSummary(
+            long count,
+            long p50,
+            long p90,
+            long p99,
+            long max,
+            double withinDeadline) {
+
+        static StageSummary of(Histogram histogram, Duration deadline) {
+            long count = histogram.getTotalCount();
+            if (count == 0) return new StageSummary(0, 0, 0, 0, 0, 1.0);
+            long within = histogram.getCountBetweenValues(0, deadline.toMillis());
+            return new StageSummary(count,
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getMaxValue(),
+                    Math.min((double) within / count, 1.0));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.clinicalflow.notify.service;
+
+import com.clinicalflow.notify.event.LabResultEvent;
+
+/**
+ * A critical lab result joined with the patient's census entry. {@code patient}
+ * is null when the patient was still unknown after the join's maximum wait.
+ */
+public record EnrichedAlert(LabResultEvent result, PatientCensus.CensusEntry patient) {
+
+    public String patientName() {
+        return patient != null && patient.patientName() != null ? patient.patientName() : "unknown";
+    }
+
+    public String mrn() {
+        return patient != null && patient.mrn() != null ? patient.mrn() : "unknown";
+    }
+
+    public String status() {
+        return patient != null ? patient.status() : "unknown";
+    }
+}
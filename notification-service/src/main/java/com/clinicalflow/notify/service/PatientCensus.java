@@ -0,0 +1,340 @@
+package com.clinicalflow.notify.service;
+
+import com.clinicalflow.notify.event.PatientEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Current status of every patient, folded from {@code patient.events}.
+ *
+ * <p>The store is compacted like the topic would be: one entry per patient
+ * holding the latest event, plus a key set per status so counts and listings
+ * never scan the whole census. Discharged patients are kept for
+ * {@code discharged-retention} and then dropped.
+ *
+ * <p>The state and the offset of the last event folded into it are written to
+ * a snapshot file. On startup the snapshot is loaded and the listener seeks
+ * each partition to the snapshot offset, so only the tail of the topic is
+ * replayed; without a snapshot the topic is replayed from the beginning.
+ * patient-service creates the topic compacted, so a replay from the
+ * beginning still sees every patient's latest event, however old.
+ * {@link #caughtUp()} turns true once every assigned partition has reached the
+ * end offset it had when it was assigned.
+ */
+@Component
+public class PatientCensus implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientCensus.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x43464353;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final List<String> STATUSES = List.of("REGISTERED", "ADMITTED", "TRANSFERRED", "DISCHARGED");
+
+    private final Path snapshotFile;
+    private final Duration dischargedRetention;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition updated = lock.newCondition();
+    private final Map<UUID, CensusEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> byStatus = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> offsets = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> replayTargets = new ConcurrentHashMap<>();
+    private volatile boolean assigned;
+    private volatile long replayStartedAt;
+    private boolean dirty;
+
+    public PatientCensus(MeterRegistry meterRegistry,
+                         @Value("${app.census.directory:data/census}") Path directory,
+                         @Value("${app.census.discharged-retention:24h}") Duration dischargedRetention) {
+        this.snapshotFile = directory.resolve("patient-census.snapshot");
+        this.dischargedRetention = dischargedRetention;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create census directory " + directory, e);
+        }
+        restore();
+
+        for (String status : STATUSES) {
+            Gauge.builder("census.patients", this, census -> census.count(status))
+                    .description("Patients currently in each status, from the local census")
+                    .tag("status", status)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("census.replay.remaining", replayTargets, targets -> targets.isEmpty() ? 0 : remaining())
+                .description("Events still to be replayed before the census is caught up")
+                .register(meterRegistry);
+    }
+
+    /** Offsets to resume from, one past the last event folded into the census. */
+    public Optional<Long> resumeOffset(TopicPartition partition) {
+        return Optional.ofNullable(offsets.get(partition));
+    }
+
+    /**
+     * Records where each newly assigned partition starts and where it has to
+     * get to. Partitions already at their end are caught up immediately.
+     */
+    public void startReplay(Map<TopicPartition, Long> startOffsets, Map<TopicPartition, Long> endOffsets) {
+        replayStartedAt = System.nanoTime();
+        endOffsets.forEach((partition, end) -> {
+            long start = startOffsets.getOrDefault(partition, 0L);
+            if (start < end) {
+                replayTargets.put(partition, end);
+                offsets.putIfAbsent(partition, start);
+            }
+        });
+        assigned = true;
+        if (!replayTargets.isEmpty()) {
+            log.info("Replaying {} patient events into the census", remaining());
+        }
+    }
+
+    public void stopReplay(Collection<TopicPartition> revoked) {
+        revoked.forEach(replayTargets::remove);
+    }
+
+    public void apply(List<ConsumerRecord<String, PatientEvent>> records) {
+        lock.lock();
+        try {
+            for (ConsumerRecord<String, PatientEvent> record : records) {
+                PatientEvent event = record.value();
+                if (event != null && event.patientId() != null && event.newStatus() != null) {
+                    CensusEntry previous = entries.get(event.patientId());
+                    Instant since = previous != null && previous.status().equals(event.newStatus())
+                            ? previous.since()
+                            : event.timestamp() != null ? event.timestamp() : Instant.ofEpochMilli(record.timestamp());
+                    put(new CensusEntry(event.patientId(), event.mrn(), event.patientName(), event.newStatus(), since));
+                }
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                offsets.put(partition, record.offset() + 1);
+                Long target = replayTargets.get(partition);
+                if (target != null && record.offset() + 1 >= target) {
+                    replayTargets.remove(partition);
+                    if (replayTargets.isEmpty()) {
+                        log.info("Census caught up: {} patients in {} ms", entries.size(),
+                                (System.nanoTime() - replayStartedAt) / 1_000_000);
+                    }
+                }
+            }
+            dirty = true;
+            updated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until at least one patient in {@code patientIds} is in the census,
+     * the census has caught up or the deadline passes, and returns the entries
+     * found so far.
+     */
+    public Map<UUID, CensusEntry> await(Collection<UUID> patientIds, Instant deadline) throws InterruptedException {
+        Map<UUID, CensusEntry> found = new HashMap<>();
+        lock.lock();
+        try {
+            while (true) {
+                for (UUID id : patientIds) {
+                    CensusEntry entry = entries.get(id);
+                    if (entry != null) found.put(id, entry);
+                }
+                long waitNanos = Duration.between(Instant.now(), deadline).toNanos();
+                if (!found.isEmpty() || waitNanos <= 0 || caughtUp()) return found;
+                updated.awaitNanos(waitNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(CensusEntry entry) {
+        CensusEntry previous = entries.put(entry.patientId(), entry);
+        if (previous != null && !previous.status().equals(entry.status())) {
+            Set<UUID> old = byStatus.get(previous.status());
+            if (old != null) old.remove(entry.patientId());
+        }
+        byStatus.computeIfAbsent(entry.status(), s -> ConcurrentHashMap.newKeySet()).add(entry.patientId());
+    }
+
+    private void remove(UUID patientId) {
+        CensusEntry removed = entries.remove(patientId);
+        if (removed != null) {
+            Set<UUID> ids = byStatus.get(removed.status());
+            if (ids != null) ids.remove(patientId);
+        }
+    }
+
+    public boolean caughtUp() {
+        return assigned && replayTargets.isEmpty();
+    }
+
+    public Optional<CensusEntry> find(UUID patientId) {
+        return Optional.ofNullable(entries.get(patientId));
+    }
+
+    public int count(String status) {
+        Set<UUID> ids = byStatus.get(status);
+        return ids == null ? 0 : ids.size();
+    }
+
+    public CensusSummary summary() {
+        Map<String, Integer> counts = new TreeMap<>();
+        byStatus.forEach((status, ids) -> counts.put(status, ids.size()));
+        return new CensusSummary(caughtUp(), entries.size(), counts);
+    }
+
+    /** Patients in a status, longest in that status first. */
+    public List<CensusEntry> list(String status, int limit) {
+        Set<UUID> ids = byStatus.get(status);
+        if (ids == null) return List.of();
+        List<CensusEntry> listed = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            CensusEntry entry = entries.get(id);
+            if (entry != null && entry.status().equals(status)) listed.add(entry);
+        }
+        listed.sort(Comparator.comparing(CensusEntry::since));
+        return listed.size() > limit ? listed.subList(0, limit) : listed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.census.snapshot-interval-ms:30000}")
+    public void snapshot() {
+        List<CensusEntry> copy;
+        Map<TopicPartition, Long> offsetsCopy;
+        lock.lock();
+        try {
+            if (!dirty) return;
+            purgeDischarged();
+            copy = new ArrayList<>(entries.values());
+            offsetsCopy = new HashMap<>(offsets);
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(offsetsCopy.size());
+                for (Map.Entry<TopicPartition, Long> e : offsetsCopy.entrySet()) {
+                    out.writeUTF(e.getKey().topic());
+                    out.writeInt(e.getKey().partition());
+                    out.writeLong(e.getValue());
+                }
+                out.writeInt(copy.size());
+                for (CensusEntry entry : copy) {
+                    out.writeLong(entry.patientId().getMostSignificantBits());
+                    out.writeLong(entry.patientId().getLeastSignificantBits());
+                    writeNullable(out, entry.mrn());
+                    writeNullable(out, entry.patientName());
+                    out.writeUTF(entry.status());
+                    out.writeLong(entry.since().toEpochMilli());
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write census snapshot", e);
+            lock.lock();
+            try {
+                dirty = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        snapshot();
+    }
+
+    private void purgeDischarged() {
+        Set<UUID> discharged = byStatus.get("DISCHARGED");
+        if (discharged == null) return;
+        Instant cutoff = Instant.now().minus(dischargedRetention);
+        for (UUID id : List.copyOf(discharged)) {
+            CensusEntry entry = entries.get(id);
+            if (entry != null && entry.since().isBefore(cutoff)) remove(id);
+        }
+    }
+
+    private void restore() {
+        if (!Files.exists(snapshotFile)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a census snapshot");
+            }
+            Map<TopicPartition, Long> restoredOffsets = new HashMap<>();
+            int partitions = in.readInt();
+            for (int i = 0; i < partitions; i++) {
+                restoredOffsets.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+            }
+            List<CensusEntry> restored = new ArrayList<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                restored.add(new CensusEntry(new UUID(in.readLong(), in.readLong()),
+                        readNullable(in), readNullable(in), in.readUTF(), Instant.ofEpochMilli(in.readLong())));
+            }
+            restored.forEach(this::put);
+            offsets.putAll(restoredOffsets);
+            log.info("Loaded census snapshot: {} patients", restored.size());
+        } catch (IOException e) {
+            entries.clear();
+            byStatus.clear();
+            log.warn("Ignoring unreadable census snapshot, replaying from the beginning: {}", e.toString());
+        }
+    }
+
+    private long remaining() {
+        long remaining = 0;
+        for (Map.Entry<TopicPartition, Long> target : replayTargets.entrySet()) {
+            remaining += Math.max(0, target.getValue() - offsets.getOrDefault(target.getKey(), 0L));
+        }
+        return remaining;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public record CensusEntry(UUID patientId, String mrn, String patientName, String status, Instant since) {}
+
+    public record CensusSummary(boolean caughtUp, int patients, Map<String, Integer> byStatus) {}
+}
@@ -29,6 +29,30 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(PatientService.InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursor(PatientService.InvalidCursorException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/invalid-cursor"));
+        problem.setTitle("Invalid Cursor");
+        return problem;
+    }
+
+    @ExceptionHandler(PatientService.InvalidStatusTransitionException.class)
+    public ProblemDetail handleInvalidTransition(PatientService.InvalidStatusTransitionException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/invalid-status-transition"));
+        problem.setTitle("Invalid Status Transition");
+        return problem;
+    }
+
+    @ExceptionHandler(PatientService.ConcurrentUpdateException.class)
+    public ProblemDetail handleConcurrentUpdate(PatientService.ConcurrentUpdateException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create("https://clinicalflow.com/errors/concurrent-update"));
+        problem.setTitle("Concurrent Update");
+        return problem;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleValidation(MethodArgumentNotValidException ex) {
         String errors = ex.getBindingResult().getFieldErrors().stream()
@@ -9,12 +9,20 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaConfig {
 
+    /**
+     * Keyed by patient id and compacted, so the topic always keeps at least
+     * each patient's latest event. Consumers that fold it into current state,
+     * such as the notification census, can rebuild from the beginning however
+     * old a patient's last change is. Existing topics are switched over too
+     * ({@code spring.kafka.admin.modify-topic-configs}).
+     */
     @Bean
     public NewTopic patientEventsTopic(
             @Value("${app.kafka.topic.patient-events}") String topicName) {
         return TopicBuilder.name(topicName)
                 .partitions(3)
                 .replicas(1)
+                .compact()
                 .build();
     }
 }
@@ -2,11 +2,18 @@ package com.clinicalflow.patient.controller;
 
 import com.clinicalflow.patient.model.Patient;
 import com.clinicalflow.patient.model.PatientStatus;
+import com.clinicalflow.patient.service.PatientPage;
 import com.clinicalflow.patient.service.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,19 +21,47 @@ import java.util.UUID;
 @RequestMapping("/api/patients")
 public class PatientController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final PatientService service;
+    private final ObjectMapper objectMapper;
 
-    public PatientController(PatientService service) {
+    public PatientController(PatientService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Patient> findAll(
+    public PatientPage findAll(
+            @RequestParam(required = false) PatientStatus status,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (status != null) return service.findByStatus(status, cursor, limit);
+        if (lastName != null) return service.searchByLastName(lastName, cursor, limit);
+        return service.findAll(cursor, limit);
+    }
+
+    @GetMapping("/search")
+    public List<Patient> search(
+            @RequestParam String lastName,
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.searchByLastNameRanked(lastName, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream(
             @RequestParam(required = false) PatientStatus status,
             @RequestParam(required = false) String lastName) {
-        if (status != null) return service.findByStatus(status);
-        if (lastName != null) return service.searchByLastName(lastName);
-        return service.findAll();
+        StreamingResponseBody body = out -> service.streamPatients(status, lastName, patient -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(patient));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,148 @@
+package com.clinicalflow.patient.event;
+
+import com.clinicalflow.patient.model.OutboxEvent;
+import com.clinicalflow.patient.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to Kafka in id order. Delivery is at-least-once: a row
+ * is deleted only after the broker acknowledged it. Within a batch a patient's
+ * events are sent one after another, each after the previous one was
+ * acknowledged, so once a send fails for a patient key the later rows for that
+ * key are never sent; they stay in the outbox and are retried in their
+ * original order on the next poll.
+ * <p>
+ * A batch runs in one transaction that holds the relay lock and a connection,
+ * so all of its acknowledgements share a single {@code send-timeout-ms}
+ * deadline. Rows whose send has not been acknowledged by then are kept and
+ * retried on the next poll.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final long RELAY_LOCK_KEY = 0x5041544F55544258L;
+
+    private final OutboxEventRepository repository;
+    private final PatientEventOutbox outbox;
+    private final PatientEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayed;
+    private final Counter failures;
+
+    public OutboxRelay(OutboxEventRepository repository,
+                       PatientEventOutbox outbox,
+                       PatientEventPublisher publisher,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.repository = repository;
+        this.outbox = outbox;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Events written to the outbox but not yet relayed to Kafka")
+                .register(meterRegistry);
+        TimeGauge.builder("outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest event still waiting in the outbox")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("outbox.relayed")
+                .description("Events relayed from the outbox to Kafka")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox events whose send failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        Integer drained;
+        do {
+            drained = transactionTemplate.execute(status -> relayBatch());
+        } while (drained != null && drained == batchSize);
+        // Read-write so the lag is measured on the primary, not a replica.
+        transactionTemplate.executeWithoutResult(status -> refreshLag());
+    }
+
+    private int relayBatch() {
+        if (!repository.tryAcquireRelayLock(RELAY_LOCK_KEY)) return 0;
+
+        List<OutboxEvent> batch = repository.findByOrderByIdAsc(Limit.of(batchSize));
+        if (batch.isEmpty()) return 0;
+
+        List<PatientEvent> events = new ArrayList<>(batch.size());
+        for (OutboxEvent row : batch) {
+            events.add(outbox.read(row));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<CompletableFuture<?>> sends = publisher.publishAll(events, deadline);
+
+        Set<String> failedKeys = new HashSet<>();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent row = batch.get(i);
+            if (awaitSend(sends.get(i), row, deadline) && !failedKeys.contains(row.getAggregateKey())) {
+                delivered.add(row.getId());
+            } else {
+                failedKeys.add(row.getAggregateKey());
+            }
+        }
+
+        repository.deleteAllByIdInBatch(delivered);
+        relayed.increment(delivered.size());
+        failures.increment(batch.size() - delivered.size());
+        return failedKeys.isEmpty() ? batch.size() : 0;
+    }
+
+    private boolean awaitSend(CompletableFuture<?> send, OutboxEvent row, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox event {} for key {} not delivered, will retry", row.getId(), row.getAggregateKey());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void refreshLag() {
+        pending.set(repository.count());
+        lagMillis.set(repository.findFirstByOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                .orElse(0L));
+    }
+}
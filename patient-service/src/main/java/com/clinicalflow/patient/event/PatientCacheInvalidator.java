@@ -0,0 +1,28 @@
+package com.clinicalflow.patient.event;
+
+import com.clinicalflow.patient.service.PatientCache;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link PatientCache} coherent across replicas. Every replica joins its
+ * own consumer group so each one sees every patient event, including the ones
+ * written by its peers.
+ */
+@Component
+public class PatientCacheInvalidator {
+
+    private final PatientCache cache;
+
+    public PatientCacheInvalidator(PatientCache cache) {
+        this.cache = cache;
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topic.patient-events}",
+            groupId = "patient-service-cache-${random.uuid}",
+            autoStartup = "${app.patient-cache.distributed-invalidation:true}")
+    public void onPatientEvent(PatientEvent event) {
+        cache.evict(event.getPatientId(), event.getMrn());
+    }
+}
@@ -0,0 +1,83 @@
+package com.clinicalflow.patient.event;
+
+/**
+ * Binary encoding of {@link PatientEvent}, version 1.
+ *
+ * <pre>
+ *  1 eventId         uuid (16 bytes)     7 previousStatus  code
+ *  2 eventType       code                8 previousStatus  name, if no code
+ *  3 eventType       name, if no code    9 newStatus       code
+ *  4 patientId       uuid               10 newStatus       name, if no code
+ *  5 mrn             string             11 timestamp       epoch micros
+ *  6 patientName     string
+ * </pre>
+ *
+ * Enum codes are positions in the tables below plus one, never Java ordinals;
+ * new constants are only ever appended. A value without a code travels as its
+ * name in the fallback field. Unknown fields are skipped on decode, so new
+ * fields can be added under new numbers without breaking older consumers.
+ */
+public final class PatientEventCodec {
+
+    static final String[] EVENT_TYPES = {
+            "PATIENT_REGISTERED", "PATIENT_ADMITTED", "PATIENT_DISCHARGED",
+            "PATIENT_TRANSFERRED", "PATIENT_UPDATED"};
+    static final String[] STATUSES = {"REGISTERED", "ADMITTED", "DISCHARGED", "TRANSFERRED"};
+
+    private PatientEventCodec() {}
+
+    public static byte[] encode(PatientEvent event) {
+        WireWriter out = new WireWriter(128);
+        out.writeUuid(1, event.getEventId());
+        writeEnum(out, 2, 3, EVENT_TYPES, event.getEventType());
+        out.writeUuid(4, event.getPatientId());
+        out.writeString(5, event.getMrn());
+        out.writeString(6, event.getPatientName());
+        writeEnum(out, 7, 8, STATUSES, event.getPreviousStatus());
+        writeEnum(out, 9, 10, STATUSES, event.getNewStatus());
+        out.writeInstant(11, event.getTimestamp());
+        return out.toByteArray();
+    }
+
+    public static PatientEvent decode(byte[] bytes) {
+        PatientEvent event = new PatientEvent();
+        WireReader in = new WireReader(bytes);
+        for (int field = in.nextField(); field != 0; field = in.nextField()) {
+            switch (field) {
+                case 1 -> event.setEventId(in.readUuid());
+                case 2 -> event.setEventType(enumName(EVENT_TYPES, in.readCode()));
+                case 3 -> event.setEventType(in.readString());
+                case 4 -> event.setPatientId(in.readUuid());
+                case 5 -> event.setMrn(in.readString());
+                case 6 -> event.setPatientName(in.readString());
+                case 7 -> event.setPreviousStatus(enumName(STATUSES, in.readCode()));
+                case 8 -> event.setPreviousStatus(in.readString());
+                case 9 -> event.setNewStatus(enumName(STATUSES, in.readCode()));
+                case 10 -> event.setNewStatus(in.readString());
+                case 11 -> event.setTimestamp(in.readInstant());
+                default -> in.skip();
+            }
+        }
+        return event;
+    }
+
+    private static void writeEnum(WireWriter out, int codeField, int nameField, String[] table, String name) {
+        if (name == null) return;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i].equals(name)) {
+                out.writeCode(codeField, i + 1);
+                return;
+            }
+        }
+        out.writeString(nameField, name);
+    }
+
+    /**
+     * Names an enum code. A code from a newer producer's table decodes to
+     * {@code UNKNOWN_<code>} instead of failing, so the rest of the event is
+     * still processed.
+     */
+    private static String enumName(String[] table, int code) {
+        return code >= 1 && code <= table.length ? table[code - 1] : "UNKNOWN_" + code;
+    }
+}
@@ -0,0 +1,48 @@
+package com.clinicalflow.patient.event;
+
+import com.clinicalflow.patient.model.OutboxEvent;
+import com.clinicalflow.patient.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records patient events in the outbox table as part of the caller's transaction.
+ * Nothing is sent to Kafka here; {@link OutboxRelay} picks the rows up after
+ * commit, so a rolled-back transition can never leak an event.
+ */
+@Component
+public class PatientEventOutbox {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public PatientEventOutbox(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(PatientEvent event) {
+        repository.save(toOutboxEvent(event));
+    }
+
+    PatientEvent read(OutboxEvent row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), PatientEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload for event " + row.getId(), e);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(PatientEvent event) {
+        try {
+            return new OutboxEvent(event.getPatientId().toString(), event.getEventType(),
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize patient event: " + event, e);
+        }
+    }
+}
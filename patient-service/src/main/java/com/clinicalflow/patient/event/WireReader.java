@@ -0,0 +1,121 @@
+package com.clinicalflow.patient.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Reads fields written by the producers' {@code WireWriter}. Call
+ * {@link #nextField()} until it returns 0, read the value that matches the
+ * field number, and {@link #skip()} any field number that is not known.
+ */
+final class WireReader {
+
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+
+    private final byte[] buf;
+    private int pos;
+    private int wireType;
+
+    WireReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    /** Returns the next field number, or 0 at the end of the message. */
+    int nextField() {
+        if (pos >= buf.length) return 0;
+        long key = rawVarint();
+        wireType = (int) (key & 0x7);
+        int field = (int) (key >>> 3);
+        if (field <= 0) throw new IllegalArgumentException("Invalid field number " + field);
+        return field;
+    }
+
+    UUID readUuid() {
+        expect(LENGTH_DELIMITED);
+        if (rawVarint() != 16) throw new IllegalArgumentException("UUID field must be 16 bytes");
+        return new UUID(rawFixed64(), rawFixed64());
+    }
+
+    String readString() {
+        expect(LENGTH_DELIMITED);
+        int length = length();
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    double readDouble() {
+        expect(FIXED64);
+        return Double.longBitsToDouble(rawFixed64());
+    }
+
+    boolean readBoolean() {
+        expect(VARINT);
+        return rawVarint() != 0;
+    }
+
+    int readCode() {
+        expect(VARINT);
+        return (int) rawVarint();
+    }
+
+    Instant readInstant() {
+        expect(VARINT);
+        long zigzag = rawVarint();
+        long micros = (zigzag >>> 1) ^ -(zigzag & 1);
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    /** Skips the value of the current field; used for fields added by newer producers. */
+    void skip() {
+        switch (wireType) {
+            case VARINT -> rawVarint();
+            case FIXED64 -> advance(8);
+            case LENGTH_DELIMITED -> advance(length());
+            default -> throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private void expect(int expected) {
+        if (wireType != expected) {
+            throw new IllegalArgumentException("Expected wire type " + expected + " but found " + wireType);
+        }
+    }
+
+    private int length() {
+        long length = rawVarint();
+        if (length < 0 || length > buf.length - pos) {
+            throw new IllegalArgumentException("Field length " + length + " exceeds message");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (bytes > buf.length - pos) throw new IllegalArgumentException("Truncated message");
+        pos += bytes;
+    }
+
+    private long rawVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= buf.length) throw new IllegalArgumentException("Truncated varint");
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private long rawFixed64() {
+        advance(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (buf[pos - 8 + i] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.clinicalflow.patient.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A domain event waiting to be relayed to Kafka. Rows are written in the same
+ * transaction as the patient change they describe, so an event exists if and
+ * only if the change was committed. The relay publishes in id order. Ids are
+ * taken from the sequence one at a time, so no instance holds back a block of
+ * lower ids. Events for the same patient follow commit order: every change
+ * locks the patient row before its event takes an id, so the next change for
+ * that patient cannot take an id until the previous one has committed.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private String aggregateKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected OutboxEvent() {}
+
+    public OutboxEvent(String aggregateKey, String eventType, String payload) {
+        this.aggregateKey = aggregateKey;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public String getAggregateKey() { return aggregateKey; }
+    public String getEventType() { return eventType; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -9,9 +9,19 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "patients")
+@SqlResultSetMapping(
+        name = Patient.STATUS_TRANSITION_MAPPING,
+        entities = @EntityResult(entityClass = Patient.class),
+        columns = @ColumnResult(name = "previous_status", type = String.class))
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_patients_status_created_at_id", columnList = "status, createdAt, id")
+})
 public class Patient {
 
+    /** Maps a row plus its {@code previous_status} column; see PatientStatusTransitions. */
+    public static final String STATUS_TRANSITION_MAPPING = "Patient.statusTransition";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -41,6 +51,11 @@ public class Patient {
 
     private Instant updatedAt;
 
+    /** Bumped by every write, including status transitions done in SQL. */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @PrePersist
     void onCreate() {
         createdAt = Instant.now();
@@ -74,4 +89,6 @@ public class Patient {
 
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+
+    public long getVersion() { return version; }
 }
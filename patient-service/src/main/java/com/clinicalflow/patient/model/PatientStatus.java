@@ -1,8 +1,33 @@
 package com.clinicalflow.patient.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * RATD lifecycle. A patient is admitted once registered, may be transferred
+ * any number of times while admitted, and is discharged from either
+ * inpatient status. A discharged patient can be admitted again (readmission).
+ */
 public enum PatientStatus {
     REGISTERED,
     ADMITTED,
     DISCHARGED,
-    TRANSFERRED
+    TRANSFERRED;
+
+    public boolean canTransitionTo(PatientStatus target) {
+        return switch (this) {
+            case REGISTERED -> target == ADMITTED;
+            case ADMITTED, TRANSFERRED -> target == TRANSFERRED || target == DISCHARGED;
+            case DISCHARGED -> target == ADMITTED;
+        };
+    }
+
+    /** Statuses from which {@code target} may be entered. */
+    public static Set<PatientStatus> sourcesOf(PatientStatus target) {
+        Set<PatientStatus> sources = EnumSet.noneOf(PatientStatus.class);
+        for (PatientStatus status : values()) {
+            if (status.canTransitionTo(target)) sources.add(status);
+        }
+        return sources;
+    }
 }
@@ -0,0 +1,23 @@
+package com.clinicalflow.patient.repository;
+
+import com.clinicalflow.patient.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+
+    /**
+     * Transaction-scoped advisory lock so only one replica relays at a time,
+     * which keeps per-patient publication order intact.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAcquireRelayLock(long key);
+}
@@ -2,19 +2,108 @@ package com.clinicalflow.patient.repository;
 
 import com.clinicalflow.patient.model.Patient;
 import com.clinicalflow.patient.model.PatientStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface PatientRepository extends JpaRepository<Patient, UUID> {
+public interface PatientRepository extends JpaRepository<Patient, UUID>, PatientStatusTransitions {
 
     Optional<Patient> findByMrn(String mrn);
 
-    List<Patient> findByStatus(PatientStatus status);
-
-    List<Patient> findByLastNameIgnoreCaseContaining(String lastName);
+    @Query("select p.status from Patient p where p.id = :id")
+    Optional<PatientStatus> findStatusById(UUID id);
 
     boolean existsByMrn(String mrn);
+
+    // --- Ranked last-name search, served by the indexes in V2__last_name_search_indexes ---
+
+    @Query(value = """
+            select * from patients
+            where lower(last_name) like :prefix escape '!'
+            order by lower(last_name), created_at
+            limit :limit""", nativeQuery = true)
+    List<Patient> searchByLastNamePrefix(String prefix, int limit);
+
+    /**
+     * Substring match ranked exact match first, then prefix matches, then by
+     * trigram similarity to the search term.
+     */
+    @Query(value = """
+            select * from patients
+            where lower(last_name) like :pattern escape '!'
+            order by lower(last_name) = :term desc,
+                     lower(last_name) like :prefix escape '!' desc,
+                     similarity(lower(last_name), :term) desc,
+                     lower(last_name), created_at
+            limit :limit""", nativeQuery = true)
+    List<Patient> searchByLastNameRanked(String term, String pattern, String prefix, int limit);
+
+    // --- Keyset pagination on (createdAt, id) ---
+
+    @Query("select p from Patient p order by p.createdAt, p.id")
+    List<Patient> findFirstPage(Limit limit);
+
+    @Query("""
+            select p from Patient p
+            where p.createdAt > :createdAt or (p.createdAt = :createdAt and p.id > :id)
+            order by p.createdAt, p.id""")
+    List<Patient> findPageAfter(Instant createdAt, UUID id, Limit limit);
+
+    @Query("select p from Patient p where p.status = :status order by p.createdAt, p.id")
+    List<Patient> findFirstPageByStatus(PatientStatus status, Limit limit);
+
+    @Query("""
+            select p from Patient p
+            where p.status = :status
+              and (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.id > :id))
+            order by p.createdAt, p.id""")
+    List<Patient> findPageByStatusAfter(PatientStatus status, Instant createdAt, UUID id, Limit limit);
+
+    @Query("""
+            select p from Patient p
+            where lower(p.lastName) like :pattern escape '!'
+            order by p.createdAt, p.id""")
+    List<Patient> findFirstPageByLastNameLike(String pattern, Limit limit);
+
+    @Query("""
+            select p from Patient p
+            where lower(p.lastName) like :pattern escape '!'
+              and (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.id > :id))
+            order by p.createdAt, p.id""")
+    List<Patient> findPageByLastNameLikeAfter(String pattern, Instant createdAt, UUID id, Limit limit);
+
+    // --- Streaming; callers must consume inside a transaction and close the stream ---
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p order by p.createdAt, p.id")
+    Stream<Patient> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p where p.status = :status order by p.createdAt, p.id")
+    Stream<Patient> streamByStatus(PatientStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select p from Patient p
+            where lower(p.lastName) like :pattern escape '!'
+            order by p.createdAt, p.id""")
+    Stream<Patient> streamByLastNameLike(String pattern);
 }
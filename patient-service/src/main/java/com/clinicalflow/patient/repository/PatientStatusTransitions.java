@@ -0,0 +1,21 @@
+package com.clinicalflow.patient.repository;
+
+import com.clinicalflow.patient.model.Patient;
+import com.clinicalflow.patient.model.PatientStatus;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/** Compare-and-set status changes, mixed into {@link PatientRepository}. */
+public interface PatientStatusTransitions {
+
+    /**
+     * Moves the patient to {@code target} if its current status is one of
+     * {@code sources}, in a single statement. Returns empty when the patient
+     * does not exist or is in some other status.
+     */
+    Optional<StatusTransition> transitionStatus(UUID id, Set<PatientStatus> sources, PatientStatus target);
+
+    record StatusTransition(Patient patient, PatientStatus previousStatus) {}
+}
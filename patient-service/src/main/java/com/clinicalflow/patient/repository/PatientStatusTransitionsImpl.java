@@ -0,0 +1,47 @@
+package com.clinicalflow.patient.repository;
+
+import com.clinicalflow.patient.model.Patient;
+import com.clinicalflow.patient.model.PatientStatus;
+import jakarta.persistence.EntityManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The row is locked and read in a sub-select so that {@code RETURNING} can
+ * report the status it had before the update; the outer UPDATE only matches
+ * when that status is an allowed source. Check, write and read-back are one
+ * round trip, and the result is a managed {@link Patient}.
+ */
+class PatientStatusTransitionsImpl implements PatientStatusTransitions {
+
+    private static final String TRANSITION_SQL = """
+            update patients p
+            set status = :target, updated_at = :now, version = p.version + 1
+            from (select id, status from patients where id = :id for update) current_row
+            where p.id = current_row.id and current_row.status in (:sources)
+            returning p.*, current_row.status as previous_status""";
+
+    private final EntityManager entityManager;
+
+    PatientStatusTransitionsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<StatusTransition> transitionStatus(UUID id, Set<PatientStatus> sources, PatientStatus target) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(TRANSITION_SQL, Patient.STATUS_TRANSITION_MAPPING)
+                .setParameter("id", id)
+                .setParameter("target", target.name())
+                .setParameter("now", Instant.now())
+                .setParameter("sources", sources.stream().map(Enum::name).toList())
+                .getResultList();
+        if (rows.isEmpty()) return Optional.empty();
+        Object[] row = rows.get(0);
+        return Optional.of(new StatusTransition((Patient) row[0], PatientStatus.valueOf((String) row[1])));
+    }
+}
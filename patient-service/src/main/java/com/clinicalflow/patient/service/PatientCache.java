@@ -0,0 +1,114 @@
+package com.clinicalflow.patient.service;
+
+import com.clinicalflow.patient.model.Patient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of patients, keyed both by id and by MRN.
+ * Concurrent misses for the same key share one load through
+ * {@link SingleFlight}, so a burst of lookups for one patient costs one
+ * query and one pooled connection instead of one each.
+ *
+ * Entries are evicted after the writing transaction commits, and on every
+ * replica when the corresponding event arrives on patient.events. The TTL
+ * bounds staleness if an event is ever missed. Cached instances are detached
+ * and shared, so callers must treat them as read-only.
+ */
+@Component
+public class PatientCache {
+
+    private final Cache<UUID, Patient> byId;
+    private final Cache<String, Patient> byMrn;
+    private final SingleFlight<UUID, Patient> byIdFlights;
+    private final SingleFlight<String, Patient> byMrnFlights;
+
+    /**
+     * Bumped on every eviction. A loader only populates the cache if no
+     * eviction happened while it was reading, so a lookup that raced with a
+     * write cannot re-insert the pre-write row.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PatientCache(MeterRegistry meterRegistry,
+                        @Value("${app.patient-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${app.patient-cache.ttl:60s}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byMrn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "patients.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byMrn, "patients.by-mrn");
+        this.byIdFlights = new SingleFlight<>(meterRegistry, "by-id");
+        this.byMrnFlights = new SingleFlight<>(meterRegistry, "by-mrn");
+    }
+
+    public Patient getById(UUID id, Supplier<Patient> loader) {
+        Patient cached = byId.getIfPresent(id);
+        if (cached != null) return cached;
+        return byIdFlights.execute(id, () -> load(loader));
+    }
+
+    public Patient getByMrn(String mrn, Supplier<Patient> loader) {
+        Patient cached = byMrn.getIfPresent(mrn);
+        if (cached != null) return cached;
+        return byMrnFlights.execute(mrn, () -> load(loader));
+    }
+
+    /**
+     * Evicts once the current transaction commits, or immediately when there
+     * is no transaction. Evicting before commit would let a concurrent reader
+     * cache the old row again.
+     */
+    public void evictAfterCommit(UUID id, String mrn) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id, mrn);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id, mrn);
+            }
+        });
+    }
+
+    public void evict(UUID id, String mrn) {
+        generation.incrementAndGet();
+        if (id != null) {
+            byIdFlights.forget(id);
+            byId.invalidate(id);
+        }
+        if (mrn != null) {
+            byMrnFlights.forget(mrn);
+            byMrn.invalidate(mrn);
+        }
+    }
+
+    private Patient load(Supplier<Patient> loader) {
+        long observed = generation.get();
+        Patient patient = loader.get();
+        if (generation.get() == observed) {
+            byId.put(patient.getId(), patient);
+            byMrn.put(patient.getMrn(), patient);
+        }
+        return patient;
+    }
+}
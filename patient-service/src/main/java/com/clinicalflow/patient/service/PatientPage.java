@@ -0,0 +1,11 @@
+package com.clinicalflow.patient.service;
+
+import com.clinicalflow.patient.model.Patient;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the
+ * last page.
+ */
+public record PatientPage(List<Patient> items, String nextCursor) {}
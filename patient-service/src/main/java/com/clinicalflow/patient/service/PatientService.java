@@ -1,47 +1,137 @@
 package com.clinicalflow.patient.service;
 
 import com.clinicalflow.patient.event.PatientEvent;
-import com.clinicalflow.patient.event.PatientEventPublisher;
+import com.clinicalflow.patient.event.PatientEventOutbox;
 import com.clinicalflow.patient.model.Patient;
 import com.clinicalflow.patient.model.PatientStatus;
 import com.clinicalflow.patient.repository.PatientRepository;
-import jakarta.transaction.Transactional;
+import com.clinicalflow.patient.repository.PatientStatusTransitions.StatusTransition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PatientService {
 
     private final PatientRepository repository;
-    private final PatientEventPublisher eventPublisher;
+    private final PatientEventOutbox outbox;
+    private final PatientCache cache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPageSize;
+    private final int maxSearchResults;
+    private final int maxWriteAttempts;
+    private final Timer transitionWrite;
 
-    public PatientService(PatientRepository repository, PatientEventPublisher eventPublisher) {
+    public PatientService(PatientRepository repository,
+                          PatientEventOutbox outbox,
+                          PatientCache cache,
+                          EntityManager entityManager,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.patients.page.max-size:500}") int maxPageSize,
+                          @Value("${app.patients.search.max-results:50}") int maxSearchResults,
+                          @Value("${app.patients.write.max-attempts:3}") int maxWriteAttempts) {
         this.repository = repository;
-        this.eventPublisher = eventPublisher;
+        this.outbox = outbox;
+        this.cache = cache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPageSize = maxPageSize;
+        this.maxSearchResults = maxSearchResults;
+        this.maxWriteAttempts = maxWriteAttempts;
+        this.transitionWrite = Timer.builder("clinicalflow.write")
+                .description("Time to write a change and its outbox event, from the start of the transaction to its commit")
+                .tag("operation", "patient.transition")
+                .register(meterRegistry);
     }
 
-    public List<Patient> findAll() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public PatientPage findAll(String cursor, int limit) {
+        Limit fetch = fetchLimit(limit);
+        if (cursor == null) return toPage(repository.findFirstPage(fetch), fetch);
+        PatientCursor after = PatientCursor.decode(cursor);
+        return toPage(repository.findPageAfter(after.createdAt(), after.id(), fetch), fetch);
     }
 
+    /**
+     * Served from {@link PatientCache}; the returned instance must not be modified.
+     * A miss loads in a read-write transaction so it reads the primary. A miss
+     * right after an eviction must not refill the cache from a replica that
+     * has not caught up yet.
+     */
     public Patient findById(UUID id) {
-        return repository.findById(id)
-                .orElseThrow(() -> new PatientNotFoundException("Patient not found: " + id));
+        return cache.getById(id, () -> transactionTemplate.execute(status -> loadById(id)));
     }
 
+    /** Served from {@link PatientCache} like {@link #findById}; the returned instance must not be modified. */
     public Patient findByMrn(String mrn) {
-        return repository.findByMrn(mrn)
-                .orElseThrow(() -> new PatientNotFoundException("Patient not found with MRN: " + mrn));
+        return cache.getByMrn(mrn, () -> transactionTemplate.execute(status -> repository.findByMrn(mrn)
+                .orElseThrow(() -> new PatientNotFoundException("Patient not found with MRN: " + mrn))));
+    }
+
+    @Transactional(readOnly = true)
+    public PatientPage findByStatus(PatientStatus status, String cursor, int limit) {
+        Limit fetch = fetchLimit(limit);
+        if (cursor == null) return toPage(repository.findFirstPageByStatus(status, fetch), fetch);
+        PatientCursor after = PatientCursor.decode(cursor);
+        return toPage(repository.findPageByStatusAfter(status, after.createdAt(), after.id(), fetch), fetch);
+    }
+
+    @Transactional(readOnly = true)
+    public PatientPage searchByLastName(String lastName, String cursor, int limit) {
+        Limit fetch = fetchLimit(limit);
+        String pattern = containsPattern(lastName);
+        if (cursor == null) return toPage(repository.findFirstPageByLastNameLike(pattern, fetch), fetch);
+        PatientCursor after = PatientCursor.decode(cursor);
+        return toPage(repository.findPageByLastNameLikeAfter(pattern, after.createdAt(), after.id(), fetch), fetch);
     }
 
-    public List<Patient> findByStatus(PatientStatus status) {
-        return repository.findByStatus(status);
+    /**
+     * Top-N last-name lookup for type-ahead search. Terms shorter than three
+     * characters have no useful trigrams, so they use the prefix index instead.
+     */
+    @Transactional(readOnly = true)
+    public List<Patient> searchByLastNameRanked(String lastName, int limit) {
+        String term = lastName.strip().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) return List.of();
+        int max = Math.clamp(limit, 1, maxSearchResults);
+        String prefix = escapeLike(term) + "%";
+        if (term.length() < 3) return repository.searchByLastNamePrefix(prefix, max);
+        return repository.searchByLastNameRanked(term, "%" + escapeLike(term) + "%", prefix, max);
     }
 
-    public List<Patient> searchByLastName(String lastName) {
-        return repository.findByLastNameIgnoreCaseContaining(lastName);
+    /**
+     * Streams every matching patient to {@code sink} in {@code (createdAt, id)}
+     * order. Rows are fetched from the driver in chunks and detached as soon as
+     * they are written, so heap use does not grow with the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamPatients(PatientStatus status, String lastName, Consumer<Patient> sink) {
+        try (Stream<Patient> patients = status != null ? repository.streamByStatus(status)
+                : lastName != null ? repository.streamByLastNameLike(containsPattern(lastName))
+                : repository.streamAll()) {
+            patients.forEach(patient -> {
+                sink.accept(patient);
+                entityManager.detach(patient);
+            });
+        }
     }
 
     @Transactional
@@ -52,8 +142,9 @@ public class PatientService {
 
         patient.setStatus(PatientStatus.REGISTERED);
         Patient saved = repository.save(patient);
+        cache.evictAfterCommit(saved.getId(), saved.getMrn());
 
-        eventPublisher.publish(PatientEvent.of(
+        outbox.enqueue(PatientEvent.of(
                 "PATIENT_REGISTERED",
                 saved.getId(),
                 saved.getMrn(),
@@ -80,33 +171,123 @@ public class PatientService {
         return transitionStatus(id, PatientStatus.TRANSFERRED, "PATIENT_TRANSFERRED");
     }
 
-    @Transactional
+    /**
+     * Publishes PATIENT_UPDATED so that other replicas drop their cached copy
+     * of the patient. The patch is applied to a versioned read, and is retried
+     * in a fresh transaction when a concurrent write got there first.
+     */
     public Patient update(UUID id, Patient patch) {
-        Patient existing = findById(id);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyUpdate(id, patch));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= maxWriteAttempts) {
+                    throw new ConcurrentUpdateException("Patient " + id + " was modified concurrently, retry the request");
+                }
+            }
+        }
+    }
+
+    private Patient applyUpdate(UUID id, Patient patch) {
+        Patient existing = loadById(id);
         if (patch.getFirstName() != null) existing.setFirstName(patch.getFirstName());
         if (patch.getLastName() != null) existing.setLastName(patch.getLastName());
         if (patch.getDateOfBirth() != null) existing.setDateOfBirth(patch.getDateOfBirth());
-        return repository.save(existing);
+        Patient saved = repository.saveAndFlush(existing);
+        cache.evictAfterCommit(saved.getId(), saved.getMrn());
+
+        outbox.enqueue(PatientEvent.of(
+                "PATIENT_UPDATED",
+                saved.getId(),
+                saved.getMrn(),
+                saved.getFirstName() + " " + saved.getLastName(),
+                saved.getStatus().name(),
+                saved.getStatus().name()
+        ));
+
+        return saved;
     }
 
+    /**
+     * Compare-and-set: the status changes only if the current one may move to
+     * {@code newStatus}, checked and written in one conditional UPDATE that
+     * returns the row, so there is no separate read and no lost update. When it
+     * matches nothing, the current status is read to tell a missing patient
+     * from an invalid transition; if a concurrent transition has just made the
+     * move valid, the update is retried a bounded number of times.
+     *
+     * The write timer covers the update and the outbox row, and is recorded
+     * once the transaction commits, so it includes the flush and commit that
+     * Hibernate defers to the end.
+     */
     private Patient transitionStatus(UUID id, PatientStatus newStatus, String eventType) {
-        Patient patient = findById(id);
-        String previousStatus = patient.getStatus().name();
-        patient.setStatus(newStatus);
-        Patient saved = repository.save(patient);
+        Timer.Sample write = Timer.start();
+        Set<PatientStatus> sources = PatientStatus.sourcesOf(newStatus);
+        StatusTransition transition;
+        for (int attempt = 1; ; attempt++) {
+            Optional<StatusTransition> updated = repository.transitionStatus(id, sources, newStatus);
+            if (updated.isPresent()) {
+                transition = updated.get();
+                break;
+            }
+            PatientStatus current = repository.findStatusById(id)
+                    .orElseThrow(() -> new PatientNotFoundException("Patient not found: " + id));
+            if (!current.canTransitionTo(newStatus) || attempt >= maxWriteAttempts) {
+                throw new InvalidStatusTransitionException(
+                        "Patient " + id + " cannot move from " + current + " to " + newStatus);
+            }
+        }
+        Patient saved = transition.patient();
+        cache.evictAfterCommit(saved.getId(), saved.getMrn());
 
-        eventPublisher.publish(PatientEvent.of(
+        outbox.enqueue(PatientEvent.of(
                 eventType,
                 saved.getId(),
                 saved.getMrn(),
                 saved.getFirstName() + " " + saved.getLastName(),
-                previousStatus,
+                transition.previousStatus().name(),
                 newStatus.name()
         ));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.stop(transitionWrite);
+            }
+        });
 
         return saved;
     }
 
+    /** Always reads the database; write paths must never mutate a cached instance. */
+    private Patient loadById(UUID id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new PatientNotFoundException("Patient not found: " + id));
+    }
+
+    /** Asks for one extra row so we can tell whether another page exists. */
+    private Limit fetchLimit(int limit) {
+        return Limit.of(Math.clamp(limit, 1, maxPageSize) + 1);
+    }
+
+    private PatientPage toPage(List<Patient> rows, Limit fetch) {
+        int pageSize = fetch.max() - 1;
+        if (rows.size() <= pageSize) return new PatientPage(rows, null);
+        List<Patient> items = rows.subList(0, pageSize);
+        Patient last = items.get(pageSize - 1);
+        return new PatientPage(items, new PatientCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    private static String containsPattern(String lastName) {
+        return "%" + escapeLike(lastName.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    /** LIKE patterns in {@link PatientRepository} use '!' as the escape character. */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+
     public static class PatientNotFoundException extends RuntimeException {
         public PatientNotFoundException(String message) { super(message); }
     }
@@ -114,4 +295,16 @@ public class PatientService {
     public static class DuplicateMrnException extends RuntimeException {
         public DuplicateMrnException(String message) { super(message); }
     }
+
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException(String message) { super(message); }
+    }
+
+    public static class InvalidStatusTransitionException extends RuntimeException {
+        public InvalidStatusTransitionException(String message) { super(message); }
+    }
+
+    public static class ConcurrentUpdateException extends RuntimeException {
+        public ConcurrentUpdateException(String message) { super(message); }
+    }
 }
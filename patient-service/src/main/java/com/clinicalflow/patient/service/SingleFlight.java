@@ -0,0 +1,81 @@
+package com.clinicalflow.patient.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller runs the
+ * loader on its own thread; callers arriving while it is in flight wait on
+ * the same future and get its value or its exception. Nothing is kept once
+ * the load finishes, so this only merges calls that overlap in time.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(MeterRegistry meterRegistry, String lookup) {
+        this.executed = Counter.builder("patients.lookup.flights")
+                .description("Cache-miss patient lookups, by whether they ran the query or joined one in flight")
+                .tags("lookup", lookup, "result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("patients.lookup.flights")
+                .description("Cache-miss patient lookups, by whether they ran the query or joined one in flight")
+                .tags("lookup", lookup, "result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("patients.lookup.in-flight", inFlight, ConcurrentHashMap::size)
+                .description("Keys with a lookup currently in flight")
+                .tags("lookup", lookup)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Removed before completing: once the value is available, a new caller
+        // must start its own load rather than reuse this one as a cache.
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * Detaches the in-flight load for {@code key}, if any. Its current waiters
+     * still get its result, but later callers start a fresh load, so nobody
+     * who arrives after a write joins a read that began before it.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update).
+-- Existing databases are baselined at this version and skip this script.
+
+create table if not exists patients (
+    id            uuid                        not null,
+    created_at    timestamp(6) with time zone not null,
+    date_of_birth date                        not null,
+    first_name    varchar(255)                not null,
+    last_name     varchar(255)                not null,
+    mrn           varchar(255)                not null unique,
+    status        varchar(255)                not null
+        check (status in ('REGISTERED', 'ADMITTED', 'DISCHARGED', 'TRANSFERRED')),
+    updated_at    timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index if not exists idx_patients_created_at_id on patients (created_at, id);
+create index if not exists idx_patients_status_created_at_id on patients (status, created_at, id);
+
+create sequence if not exists outbox_events_seq start with 1 increment by 50;
+
+create table if not exists outbox_events (
+    id            bigint                      not null,
+    aggregate_key varchar(255)                not null,
+    created_at    timestamp(6) with time zone not null,
+    event_type    varchar(255)                not null,
+    payload       text                        not null,
+    primary key (id)
+);
@@ -0,0 +1,12 @@
+-- Indexed last-name search for the registration desk.
+-- The trigram GIN index serves substring (lower(last_name) like '%x%') lookups and
+-- similarity ranking; the text_pattern_ops btree serves short prefix lookups,
+-- where trigrams are too coarse to be selective.
+
+create extension if not exists pg_trgm;
+
+create index if not exists idx_patients_last_name_trgm
+    on patients using gin (lower(last_name) gin_trgm_ops);
+
+create index if not exists idx_patients_last_name_prefix
+    on patients (lower(last_name) text_pattern_ops);
@@ -0,0 +1,5 @@
+-- Optimistic-lock version for patients. Status transitions bump it in the
+-- same conditional UPDATE that changes the status, so a concurrent edit that
+-- read the row before the transition fails instead of overwriting it.
+
+alter table patients add column if not exists version bigint not null default 0;
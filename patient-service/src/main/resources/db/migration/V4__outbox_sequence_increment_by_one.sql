@@ -0,0 +1,6 @@
+-- outbox_events ids were handed out in blocks of 50 per instance, so with
+-- several replicas a later event could get a lower id than an earlier one and
+-- the relay, which publishes in id order, would send them out of order. Ids
+-- now come from the sequence one at a time (allocationSize = 1 on OutboxEvent).
+
+alter sequence outbox_events_seq increment by 1;
@@ -0,0 +1,177 @@
+package com.clinicalflow.patient.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing decisions of {@link ReadWriteRoutingDataSource} together with the
+ * cookie handling of {@link ReadYourWritesFilter}. Transactions are simulated
+ * through {@link TransactionSynchronizationManager}, and the two pools are
+ * stubs that hand out distinguishable connections.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(WINDOW);
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReadWriteRoutingDataSource(primary, replica, filter, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertThat(connectionInTransaction(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        assertThat(connectionInTransaction(false)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void connectionOutsideTransactionUsesPrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void committedWriteRequestPinsLaterReadsAndSetsCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Connection> connections = new ArrayList<>();
+        long before = System.currentTimeMillis();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/patients"), response, (req, res) -> {
+            connections.add(connectionInTransaction(false));
+            connections.add(connectionInTransaction(true));
+        });
+
+        assertThat(connections).containsExactly(primaryConnection, primaryConnection);
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue()))
+                .isGreaterThan(before)
+                .isLessThanOrEqualTo(System.currentTimeMillis() + WINDOW.toMillis());
+        assertThat(cookie.getMaxAge()).isEqualTo(WINDOW.toSeconds());
+    }
+
+    @Test
+    void readWriteTransactionInSafeRequestDoesNotPin() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Connection> connections = new ArrayList<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/patients/1"), response, (req, res) -> {
+            connections.add(connectionInTransaction(false));
+            connections.add(connectionInTransaction(true));
+        });
+
+        assertThat(connections).containsExactly(primaryConnection, replicaConnection);
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNull();
+    }
+
+    @Test
+    void cookieWithinWindowPinsReadsToPrimary() throws Exception {
+        long until = System.currentTimeMillis() + WINDOW.toMillis() / 2;
+        assertThat(readOnlyConnectionWithCookie(Long.toString(until))).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void expiredCookieIsIgnored() throws Exception {
+        long until = System.currentTimeMillis() - 1;
+        assertThat(readOnlyConnectionWithCookie(Long.toString(until))).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void cookieBeyondWindowIsIgnored() throws Exception {
+        long until = System.currentTimeMillis() + WINDOW.toMillis() * 10;
+        assertThat(readOnlyConnectionWithCookie(Long.toString(until))).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void malformedCookieIsIgnored() throws Exception {
+        assertThat(readOnlyConnectionWithCookie("forever")).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void zeroWindowNeverPins() throws Exception {
+        ReadYourWritesFilter disabled = new ReadYourWritesFilter(Duration.ZERO);
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReadWriteRoutingDataSource(primary, replica, disabled, new SimpleMeterRegistry());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Connection> connections = new ArrayList<>();
+
+        disabled.doFilter(new MockHttpServletRequest("POST", "/api/patients"), response, (req, res) -> {
+            connections.add(connectionInTransaction(false));
+            connections.add(connectionInTransaction(true));
+        });
+
+        assertThat(connections).containsExactly(primaryConnection, replicaConnection);
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNull();
+    }
+
+    private Connection readOnlyConnectionWithCookie(String value) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, value));
+        List<Connection> connections = new ArrayList<>();
+        FilterChain chain = (req, res) -> connections.add(connectionInTransaction(true));
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return connections.get(0);
+    }
+
+    /**
+     * Takes a connection inside a simulated transaction and then commits it,
+     * running the registered afterCommit callbacks.
+     */
+    private Connection connectionInTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            Connection connection = routing.getConnection();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            return connection;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and flag regressions.
+
+Usage:
+  scripts/benchmarks/compare-jmh.py baseline.json current.json [--threshold 10]
+
+Prints one row per benchmark (and parameter set) with the relative change of
+the primary score. A change counts as a regression when it is worse than the
+threshold percentage and larger than the combined score errors; the script
+then exits with status 1, so it can gate a release build.
+"""
+import argparse
+import json
+import sys
+
+
+def key(result):
+    params = result.get("params") or {}
+    suffix = ",".join(f"{k}={v}" for k, v in sorted(params.items()))
+    name = result["benchmark"].rsplit(".", 2)
+    short = ".".join(name[-2:])
+    return f"{short}({suffix})" if suffix else short
+
+
+def error(metric):
+    # JMH writes "NaN" when a run has too few iterations to estimate error.
+    try:
+        value = float(metric.get("scoreError") or 0)
+    except (TypeError, ValueError):
+        return 0.0
+    return 0.0 if value != value else abs(value)
+
+
+def load(path):
+    with open(path) as f:
+        return {key(r): r for r in json.load(f)}
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="regression threshold in percent (default 10)")
+    args = parser.parse_args()
+
+    baseline, current = load(args.baseline), load(args.current)
+    regressions = 0
+    print(f"{'benchmark':60} {'baseline':>14} {'current':>14} {'change':>9}")
+    for name in sorted(baseline.keys() | current.keys()):
+        if name not in baseline or name not in current:
+            print(f"{name:60} {'only in ' + ('current' if name in current else 'baseline'):>39}")
+            continue
+        old, new = baseline[name]["primaryMetric"], current[name]["primaryMetric"]
+        old_score, new_score = old["score"], new["score"]
+        change = (new_score - old_score) / old_score * 100 if old_score else 0.0
+        # Lower is better for time-per-op modes, higher for throughput.
+        higher_is_better = baseline[name]["mode"] == "thrpt"
+        worse = -change if higher_is_better else change
+        noise = error(old) + error(new)
+        regressed = worse > args.threshold and abs(new_score - old_score) > noise
+        regressions += regressed
+        unit = new["scoreUnit"]
+        print(f"{name:60} {old_score:>10.2f} {unit:<3} {new_score:>10.2f} {unit:<3} {change:>+8.1f}%"
+              + ("  REGRESSION" if regressed else ""))
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,77 @@
+-- Query-latency benchmark for the lab_results access paths.
+--
+-- Seeds a scratch copy of lab_results (schema lab_bench, created LIKE the
+-- migrated table so it carries the same indexes) and runs each repository
+-- query twice: once with index access disabled, which approximates the
+-- schema before V2, and once with the V2 indexes available.
+--
+-- Usage (against a development database that has been migrated):
+--   psql -h localhost -p 5433 -U postgres -d lab_db \
+--        -v rows=3000000 -f scripts/benchmarks/lab-results-indexes.sql
+--
+-- The lab_bench schema is dropped and recreated on every run.
+
+\if :{?rows}
+\else
+    \set rows 3000000
+\endif
+\set patients 50000
+\timing on
+
+drop schema if exists lab_bench cascade;
+create schema lab_bench;
+create table lab_bench.lab_results (like public.lab_results including all);
+set search_path = lab_bench;
+
+-- 50k patients, 40 tests; about 1% critical, a fifth of those still unverified.
+insert into lab_results (id, patient_id, test_name, value, unit, reference_min, reference_max,
+                         flag, status, collected_at, reported_at)
+select gen_random_uuid(),
+       ('00000000-0000-0000-0000-' || lpad(to_hex(g % :patients), 12, '0'))::uuid,
+       'TEST-' || (g % 40),
+       random() * 10,
+       'mmol/L',
+       3.5,
+       5.0,
+       case when g % 100 = 0 then 'CRITICAL' when g % 7 = 0 then 'HIGH' else 'NORMAL' end,
+       case when g % 500 = 0 then 'REPORTED' else 'VERIFIED' end,
+       now() - (g % 1000) * interval '1 day' - (g % 86400) * interval '1 second',
+       now() - (g % 1000) * interval '1 day' - (g % 86400) * interval '1 second' + interval '1 hour'
+from generate_series(1, :rows) g;
+analyze lab_results;
+
+\set patient '''00000000-0000-0000-0000-000000000abc'''
+
+\echo '=== BEFORE: sequential access only ==='
+set enable_indexscan = off;
+set enable_bitmapscan = off;
+set enable_indexonlyscan = off;
+
+explain (analyze, buffers, costs off)
+select * from lab_results where patient_id = :patient order by collected_at desc;
+
+explain (analyze, buffers, costs off)
+select * from lab_results where patient_id = :patient and test_name = 'TEST-28' order by collected_at desc;
+
+explain (analyze, buffers, costs off)
+select * from lab_results
+where flag = 'CRITICAL' and status <> 'VERIFIED' and reported_at >= now() - interval '1 day'
+order by reported_at, id limit 50;
+
+\echo '=== AFTER: V2 indexes available ==='
+reset enable_indexscan;
+reset enable_bitmapscan;
+reset enable_indexonlyscan;
+
+explain (analyze, buffers, costs off)
+select * from lab_results where patient_id = :patient order by collected_at desc;
+
+explain (analyze, buffers, costs off)
+select * from lab_results where patient_id = :patient and test_name = 'TEST-28' order by collected_at desc;
+
+explain (analyze, buffers, costs off)
+select * from lab_results
+where flag = 'CRITICAL' and status <> 'VERIFIED' and reported_at >= now() - interval '1 day'
+order by reported_at, id limit 50;
+
+reset search_path;
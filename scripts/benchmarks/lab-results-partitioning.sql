@@ -0,0 +1,171 @@
+-- Query-latency benchmark for the partitioned lab_results (V6) as history grows.
+--
+-- Builds two scratch copies in schema lab_bench_part:
+--   flat     an ordinary table keyed on id with the V2/V5 indexes (the schema before V6)
+--   monthly  partitioned by UTC month of collected_at, like lab_results since V6
+-- Both tables then grow one year at a time with identical rows. After each year,
+-- the main access paths run against both tables, and the script reports the
+-- median planning and execution time of :runs runs:
+--   recent_90d       one patient's last 90 days   (GET /patient/{id}?since=...)
+--   recent_90d_test  the same for one test        (GET /patient/{id}?testName=...&since=...)
+--   history          one patient's full history   (no time bound, visits every partition)
+--   by_id            lookup by id alone           (findById / verify, probes every partition)
+--   export_page      one 10k-row export page from the last month
+-- It finishes by expiring the oldest month both ways: DELETE on flat, and
+-- DETACH on monthly (what LabResultPartitionService does past retention).
+--
+-- Usage (against a development database that has been migrated to V6):
+--   psql -h localhost -p 5433 -U postgres -d lab_db \
+--        -v years=4 -v rows_per_month=100000 -f scripts/benchmarks/lab-results-partitioning.sql
+--
+-- The lab_bench_part schema is dropped and recreated on every run.
+
+\if :{?years}
+\else
+    \set years 4
+\endif
+\if :{?rows_per_month}
+\else
+    \set rows_per_month 100000
+\endif
+\if :{?runs}
+\else
+    \set runs 5
+\endif
+
+drop schema if exists lab_bench_part cascade;
+create schema lab_bench_part;
+set search_path = lab_bench_part, public;
+-- psql does not expand variables inside the dollar-quoted block below.
+set lab_bench.years = :years;
+set lab_bench.rows_per_month = :rows_per_month;
+set lab_bench.runs = :runs;
+
+create table flat (like public.lab_results including defaults including constraints);
+alter table flat add primary key (id);
+create index on flat (patient_id, collected_at desc);
+create index on flat (patient_id, test_name, collected_at desc);
+create index on flat (reported_at, id) where flag = 'CRITICAL' and status <> 'VERIFIED';
+create index on flat (collected_at, id);
+
+create table monthly (like public.lab_results including defaults including constraints including indexes)
+    partition by range (collected_at);
+create table monthly_default partition of monthly default;
+
+create table results (
+    months       int,
+    total_rows   bigint,
+    query        text,
+    layout       text,
+    planning_ms  numeric,
+    execution_ms numeric
+);
+
+-- Median planning and execution time of an EXPLAIN ANALYZE over several runs.
+create function measure(sql text, runs int, out planning_ms numeric, out execution_ms numeric) as $$
+declare
+    plan json;
+    planning numeric[] := '{}';
+    execution numeric[] := '{}';
+begin
+    for i in 1..runs loop
+        execute 'explain (analyze, format json) ' || sql into plan;
+        planning := planning || (plan -> 0 ->> 'Planning Time')::numeric;
+        execution := execution || (plan -> 0 ->> 'Execution Time')::numeric;
+    end loop;
+    select percentile_cont(0.5) within group (order by p) into planning_ms from unnest(planning) p;
+    select percentile_cont(0.5) within group (order by e) into execution_ms from unnest(execution) e;
+end
+$$ language plpgsql;
+
+-- Appends one month of results to both layouts: 50k patients, 40 tests, about
+-- 1% critical, with a fifth of those still unverified.
+create function grow(month timestamptz, rows_per_month int) returns void as $$
+begin
+    execute format('create table %I partition of monthly for values from (%L) to (%L)',
+                   'monthly_' || to_char(month at time zone 'UTC', 'YYYY_MM'), month, month + interval '1 month');
+    insert into flat (id, patient_id, test_name, value, unit, reference_min, reference_max,
+                      flag, status, collected_at, reported_at)
+    select gen_random_uuid(),
+           ('00000000-0000-0000-0000-' || lpad(to_hex(g % 50000), 12, '0'))::uuid,
+           'TEST-' || (g % 40),
+           random() * 10,
+           'mmol/L',
+           3.5,
+           5.0,
+           case when g % 100 = 0 then 'CRITICAL' when g % 7 = 0 then 'HIGH' else 'NORMAL' end,
+           case when g % 500 = 0 then 'REPORTED' else 'VERIFIED' end,
+           collected_at,
+           collected_at + interval '1 hour'
+    from (select g, month + random() * (month + interval '1 month' - month) as collected_at
+          from generate_series(1, rows_per_month) g) s;
+    insert into monthly select * from flat where collected_at >= month;
+end
+$$ language plpgsql;
+
+do $$
+declare
+    years       int := current_setting('lab_bench.years')::int;
+    rows_per    int := current_setting('lab_bench.rows_per_month')::int;
+    runs        int := current_setting('lab_bench.runs')::int;
+    first_month timestamptz := date_trunc('month', now() at time zone 'UTC') at time zone 'UTC'
+                               - (years * 12 - 1) * interval '1 month';
+    month       timestamptz;
+    patient     uuid := '00000000-0000-0000-0000-000000000abc';
+    some_id     uuid;
+    since       timestamptz := now() - interval '90 days';
+    total       bigint;
+    m           record;
+    q           record;
+begin
+    for i in 0 .. years * 12 - 1 loop
+        month := first_month + i * interval '1 month';
+        perform grow(month, rows_per);
+        if (i + 1) % 12 <> 0 then continue; end if;
+
+        analyze flat;
+        analyze monthly;
+        select count(*) into total from flat;
+        select id into some_id from flat where collected_at >= first_month + interval '1 month' limit 1;
+
+        for q in
+            select * from (values
+                ('recent_90d', format('select * from %%s where patient_id = %L and collected_at >= %L order by collected_at desc', patient, since)),
+                ('recent_90d_test', format('select * from %%s where patient_id = %L and test_name = ''TEST-28'' and collected_at >= %L order by collected_at desc', patient, since)),
+                ('history', format('select * from %%s where patient_id = %L order by collected_at desc', patient)),
+                ('by_id', format('select * from %%s where id = %L', some_id)),
+                ('export_page', format('select * from %%s where collected_at < %L and (collected_at, id) > (%L, %L) order by collected_at, id limit 10000',
+                                       month + interval '1 month', month, '00000000-0000-0000-0000-000000000000'))
+            ) v(name, sql)
+        loop
+            for m in select * from (values ('flat'), ('monthly')) t(layout) loop
+                insert into results
+                select i + 1, total, q.name, m.layout, r.planning_ms, r.execution_ms
+                from measure(format(q.sql, m.layout), runs) r;
+            end loop;
+        end loop;
+    end loop;
+end
+$$;
+
+\echo '=== Median latency by history size (ms) ==='
+select months, total_rows, query,
+       round(max(planning_ms) filter (where layout = 'flat'), 3)     as flat_plan,
+       round(max(execution_ms) filter (where layout = 'flat'), 3)    as flat_exec,
+       round(max(planning_ms) filter (where layout = 'monthly'), 3)  as monthly_plan,
+       round(max(execution_ms) filter (where layout = 'monthly'), 3) as monthly_exec
+from results
+group by months, total_rows, query
+order by query, months;
+
+\echo '=== Expiring the oldest month ==='
+\timing on
+delete from flat
+where collected_at < (select date_trunc('month', min(collected_at) at time zone 'UTC') at time zone 'UTC'
+                             + interval '1 month' from flat);
+select format('alter table monthly detach partition %I', min(c.relname))
+from pg_inherits i join pg_class c on c.oid = i.inhrelid
+where i.inhparent = 'monthly'::regclass and c.relname <> 'monthly_default' \gexec
+\timing off
+
+reset search_path;
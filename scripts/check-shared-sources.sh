@@ -0,0 +1,37 @@
+#!/bin/bash
+# Some classes are copied into several services rather than shared through a
+# library module: the read-replica routing classes (patient-service and
+# lab-service) and the binary wire format (WireFormat and WireReader in all
+# three services, WireWriter in the two producers). This fails when a copy
+# differs from the patient-service one in anything but its package line, so a
+# fix made in one service is not silently missing from another.
+#
+# Usage: scripts/check-shared-sources.sh   (from the repository root)
+set -e
+patient=patient-service/src/main/java/com/clinicalflow/patient
+lab=lab-service/src/main/java/com/clinicalflow/lab
+notify=notification-service/src/main/java/com/clinicalflow/notify
+status=0
+
+# compare <path relative to the service package> <service package dir>...
+compare() {
+    local file=$1
+    shift
+    for copy in "$@"; do
+        if ! diff -u --label "$patient/$file" --label "$copy/$file" \
+                <(grep -v '^package ' "$patient/$file") <(grep -v '^package ' "$copy/$file"); then
+            status=1
+        fi
+    done
+}
+
+for class in ReadReplicaConfig ReadWriteRoutingDataSource ReadYourWritesFilter; do
+    compare "config/$class.java" "$lab"
+done
+for class in WireFormat WireReader; do
+    compare "event/$class.java" "$lab" "$notify"
+done
+compare event/WireWriter.java "$lab"
+
+[ $status -eq 0 ] && echo "Shared sources are in sync"
+exit $status
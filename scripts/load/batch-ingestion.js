@@ -0,0 +1,85 @@
+// Throughput comparison of single-result and batch submission to lab-service.
+//
+// Runs two constant-VU stages back to back with the same number of VUs: one
+// posting results one at a time to POST /api/lab-results, then one posting
+// them in batches of BATCH_SIZE to POST /api/lab-results/batch. The
+// results_accepted counter is tagged by stage, so the summary shows accepted
+// results per second for each path side by side; http_req_duration shows the
+// per-request latency behind them.
+//
+// Usage: start lab-service (and Kafka, so events are actually sent), then run
+//   k6 run scripts/load/batch-ingestion.js
+// Override the VUs with -e VUS=16, the batch size with -e BATCH_SIZE=500 and
+// the stage length with -e STAGE=60s. LAB_URL defaults to the local port.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const LAB_URL = __ENV.LAB_URL || 'http://localhost:8082';
+const VUS = parseInt(__ENV.VUS || '8', 10);
+const BATCH_SIZE = parseInt(__ENV.BATCH_SIZE || '100', 10);
+const STAGE_SECONDS = parseInt((__ENV.STAGE || '60s').replace('s', ''), 10);
+
+const accepted = new Counter('results_accepted');
+
+export const options = {
+    scenarios: {
+        single: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: `${STAGE_SECONDS}s`,
+            gracefulStop: '5s',
+            exec: 'single',
+        },
+        batch: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: `${STAGE_SECONDS}s`,
+            startTime: `${STAGE_SECONDS + 5}s`,
+            gracefulStop: '5s',
+            exec: 'batch',
+        },
+    },
+    // A threshold per stage makes k6 print that stage's own lines.
+    thresholds: {
+        'results_accepted{scenario:single}': ['count>=0'],
+        'results_accepted{scenario:batch}': ['count>=0'],
+        'http_req_duration{scenario:single}': ['p(99)<60000'],
+        'http_req_duration{scenario:batch}': ['p(99)<60000'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const jsonHeaders = { 'Content-Type': 'application/json' };
+
+// A potassium result with about 1 in 20 values in the critical range, so the
+// critical-event path is exercised as it would be in production.
+function result() {
+    const critical = Math.random() < 0.05;
+    return {
+        patientId: `00000000-0000-4000-8000-${String(Math.floor(Math.random() * 5000)).padStart(12, '0')}`,
+        testName: 'Potassium',
+        value: critical ? 6.5 + Math.random() : 3.5 + Math.random() * 1.5,
+        unit: 'mEq/L',
+        referenceMin: 3.5,
+        referenceMax: 5.0,
+        collectedAt: new Date(Date.now() - 3600000).toISOString(),
+    };
+}
+
+export function single() {
+    const res = http.post(`${LAB_URL}/api/lab-results`, JSON.stringify(result()),
+        { headers: jsonHeaders, tags: { name: 'submit-result' } });
+    if (check(res, { 'status is 201': (r) => r.status === 201 })) accepted.add(1);
+}
+
+export function batch() {
+    const results = [];
+    for (let i = 0; i < BATCH_SIZE; i++) results.push(result());
+    const res = http.post(`${LAB_URL}/api/lab-results/batch`, JSON.stringify(results),
+        { headers: jsonHeaders, tags: { name: 'submit-batch' } });
+    if (check(res, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 })) {
+        accepted.add(res.json('accepted').length);
+    }
+}
@@ -0,0 +1,79 @@
+// Concurrency/latency sweep for comparing platform and virtual threads.
+//
+// Runs one constant-VU stage per concurrency level, back to back, against a
+// mix of read and write endpoints that all block on JDBC. k6 reports latency
+// and throughput per stage, so one run gives one curve.
+//
+// Usage: start the services with VIRTUAL_THREADS=false, run
+//   k6 run -e MODE=platform --summary-export=platform.json scripts/load/threading-modes.js
+// then restart them with VIRTUAL_THREADS=true and run again with MODE=virtual.
+// Override the levels with -e LEVELS=25,100,400 and the stage length with
+// -e STAGE=30s. PATIENT_URL and LAB_URL default to the local ports.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const PATIENT_URL = __ENV.PATIENT_URL || 'http://localhost:8081';
+const LAB_URL = __ENV.LAB_URL || 'http://localhost:8082';
+const MODE = __ENV.MODE || 'unlabelled';
+const LEVELS = (__ENV.LEVELS || '10,50,100,200,400,800').split(',').map(Number);
+const STAGE_SECONDS = parseInt((__ENV.STAGE || '30s').replace('s', ''), 10);
+
+const scenarios = {};
+const thresholds = {};
+LEVELS.forEach((vus, i) => {
+    const name = `c${vus}`;
+    scenarios[name] = {
+        executor: 'constant-vus',
+        vus,
+        duration: `${STAGE_SECONDS}s`,
+        startTime: `${i * (STAGE_SECONDS + 5)}s`,
+        gracefulStop: '5s',
+        tags: { mode: MODE, concurrency: String(vus) },
+    };
+    // A threshold per stage makes k6 print that stage's own latency line.
+    thresholds[`http_req_duration{scenario:${name}}`] = ['p(99)<60000'];
+    thresholds[`http_reqs{scenario:${name}}`] = ['count>=0'];
+});
+
+export const options = { scenarios, thresholds, summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'] };
+
+const jsonHeaders = { headers: { 'Content-Type': 'application/json' } };
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 50; i++) {
+        const res = http.post(`${PATIENT_URL}/api/patients`, JSON.stringify({
+            mrn: `LOAD-${Date.now()}-${i}`,
+            firstName: 'Load',
+            lastName: `Test${i}`,
+            dateOfBirth: '1980-01-01',
+        }), jsonHeaders);
+        if (res.status === 201) ids.push(res.json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const roll = Math.random();
+    let res;
+    if (roll < 0.4) {
+        res = http.get(`${PATIENT_URL}/api/patients?limit=50`, { tags: { name: 'list-patients' } });
+    } else if (roll < 0.6) {
+        res = http.get(`${PATIENT_URL}/api/patients/search?lastName=test`, { tags: { name: 'search-patients' } });
+    } else if (roll < 0.8) {
+        res = http.get(`${LAB_URL}/api/lab-results/critical?limit=50`, { tags: { name: 'critical-worklist' } });
+    } else {
+        res = http.post(`${LAB_URL}/api/lab-results`, JSON.stringify({
+            patientId: id,
+            testName: 'Potassium',
+            value: 3.5 + Math.random() * 3,
+            unit: 'mEq/L',
+            referenceMin: 3.5,
+            referenceMax: 5.0,
+            collectedAt: new Date().toISOString(),
+        }), Object.assign({ tags: { name: 'submit-result' } }, jsonHeaders));
+    }
+    check(res, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
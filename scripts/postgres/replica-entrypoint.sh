@@ -0,0 +1,14 @@
+#!/bin/bash
+# Starts a hot standby of $PRIMARY_HOST. The first start clones the primary
+# with pg_basebackup, which writes standby.signal and primary_conninfo (-R).
+# Later starts reuse the clone and catch up through streaming replication.
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup -h "$PRIMARY_HOST" -U "$PRIMARY_USER" -D "$PGDATA" -R -X stream; do
+    echo "waiting for $PRIMARY_HOST"
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+fi
+chmod 0700 "$PGDATA"
+exec postgres -c hot_standby=on